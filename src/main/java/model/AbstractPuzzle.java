@@ -1,12 +1,16 @@
 package model;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import static java.util.Arrays.deepEquals;
-import static java.util.Arrays.deepHashCode;
-import static java.util.Collections.*;
+import static java.util.Arrays.fill;
+import static java.util.Collections.emptySet;
 import static java.util.Objects.hash;
 import static java.util.Objects.requireNonNull;
+import static util.Checks.requireNonNegative;
+import static util.Checks.requirePositive;
 
 /**
  * Abstract base class for all puzzles like {@link Sudoku}, {@link Killer} and {@link Str8ts} that have a square grid
@@ -20,8 +24,23 @@ import static java.util.Objects.requireNonNull;
  * {@link Cell Cell}, {@link #getCell(int, int) getCell()}, {@link #setCell(int, int, int) setCell()},
  * {@link #resetCell(int, int) resetCell()} and {@link SetCellResult SetCellResult} - for managing the cells of a puzzle
  * </li>
- * <li>{@link #solve()} and {@link SolveResult SolveResult} - for solving a puzzle</li>
- * <li>{@link #equals(Object) equals()} and {@link #hashCode()} - for comparing puzzles</li>
+ * <li>
+ * {@link #solve()}, {@link #solve(SolveAlgorithm) solve(SolveAlgorithm)}, {@link #solve(SolveAlgorithm, Duration)
+ * solve(SolveAlgorithm, Duration)}, {@link #solveInParallel(int) solveInParallel()}, {@link SolveResult SolveResult}
+ * and {@link SolveAlgorithm SolveAlgorithm} - for solving a puzzle
+ * </li>
+ * <li>
+ * {@link #countSolutions(int) countSolutions()} and {@link #countSolutions(int, SolveAlgorithm)
+ * countSolutions(int, SolveAlgorithm)} - for checking if the solution of a puzzle is unique
+ * </li>
+ * <li>
+ * {@link BranchingHeuristic BranchingHeuristic}, {@link #getBranchingHeuristic()} and
+ * {@link #setBranchingHeuristic(BranchingHeuristic) setBranchingHeuristic()} - for configuring how a puzzle is solved
+ * </li>
+ * <li>{@link #isComplete()} - for checking if a puzzle is solved</li>
+ * <li>
+ * {@link #equals(Object) equals()}, {@link #hashCode()} and {@link #getStateHash()} - for comparing puzzles
+ * </li>
  * </ul>
  *
  * @author Luca Kellermann
@@ -30,8 +49,32 @@ public abstract class AbstractPuzzle {
 
     /**
      * A cell in the grid of a Puzzle in the form of an ordered nominal Pair {@code (row, column)}.
+     * <p>Use {@link #of(int, int) Cell.of()} instead of the constructor to avoid allocating a new instance every
+     * time.</p>
      */
-    public static final record Cell(int row, int column) {}
+    public static final record Cell(int row, int column) {
+
+        // interned cells for all grid sizes, indexed by row * MAX_GRID_SIZE + column and created on first use
+        // (cells are immutable, so two threads creating the same cell at the same time is harmless)
+        private static final Cell[] CELLS = new Cell[MAX_GRID_SIZE * MAX_GRID_SIZE];
+
+        /**
+         * Returns the {@link Cell cell} in the specified {@code row} and {@code column}.
+         * <p>The same instance is returned for the same {@code row} and {@code column} if both are in the range of
+         * possible grid sizes, a new instance is created otherwise.</p>
+         */
+        public static Cell of(final int row, final int column) {
+            if (row < 0 || row >= MAX_GRID_SIZE || column < 0 || column >= MAX_GRID_SIZE) {
+                return new Cell(row, column);
+            }
+            Cell cell = CELLS[row * MAX_GRID_SIZE + column];
+            if (cell == null) {
+                cell = new Cell(row, column);
+                CELLS[row * MAX_GRID_SIZE + column] = cell;
+            }
+            return cell;
+        }
+    }
 
     /**
      * Result of {@link #setCell(int, int, int) setCell()}.
@@ -79,19 +122,168 @@ public abstract class AbstractPuzzle {
          * The Puzzle was solved and there was exactly one way to do so.
          */
         ONE_SOLUTION,
+
+        /**
+         * The timeout elapsed before it was known whether the Puzzle has zero, one or multiple solutions
+         * (see {@link #solve(SolveAlgorithm, Duration)}).
+         */
+        TIMED_OUT,
+
+        /**
+         * The solving thread was interrupted before it was known whether the Puzzle has zero, one or multiple
+         * solutions (see {@link #solve(SolveAlgorithm, Duration)}).
+         */
+        CANCELLED,
+    }
+
+    /**
+     * Algorithm that is used by {@link #solve(SolveAlgorithm)}.
+     */
+    public enum SolveAlgorithm {
+
+        /**
+         * Depth-first search that fills one cell after another (see {@link BranchingHeuristic BranchingHeuristic}).
+         * Can be used for all puzzles.
+         */
+        BACKTRACKING,
+
+        /**
+         * Knuth's Algorithm X with Dancing Links on an exact cover model of the puzzle.
+         * Can only be used for puzzles that can be modelled as an exact cover problem like {@link Sudoku}.
+         */
+        DANCING_LINKS,
+    }
+
+    /**
+     * Heuristic that decides which empty cell is filled next while solving.
+     */
+    public enum BranchingHeuristic {
+
+        /**
+         * Fill the empty cells in row-major order.
+         */
+        FIRST_EMPTY_CELL,
+
+        /**
+         * Fill the empty cell with the fewest possible numbers first and go back immediately if there is an empty cell
+         * without any possible number.
+         */
+        MINIMUM_REMAINING_VALUES,
     }
 
+    /**
+     * Statistics about how the cells of the first solution that was found by the last solve were filled.
+     *
+     * @param cellsFilledByPropagation the number of cells that were filled because only one number was possible
+     *                                 (naked singles and hidden singles)
+     * @param cellsFilledBySearch      the number of cells that were filled by trying a number
+     */
+    public static final record SolveStatistics(int cellsFilledByPropagation, int cellsFilledBySearch) {}
+
 
     public static final int EMPTY_CELL = 0;
 
+    private static final int NO_CELL = -1;
+
+    // numbers are represented as bits of a long while solving (see maskOf())
+    private static final int MAX_GRID_SIZE = Long.SIZE;
+
 
-    protected final int[][] grid;
+    // values of all cells indexed by row * gridSize + column, gridSize is at most MAX_GRID_SIZE -> byte is enough
+    protected final byte[] grid;
     protected final int gridSize;
 
+    // how often each number is in each row/column, indexed by row/column * (gridSize + 1) + number, updated on every
+    // cell change (setCell() can lead to duplicates for a short time)
+    private final int[] numberCountsInRows;
+    private final int[] numberCountsInColumns;
+    // cells with a value that is already in their row/column (counted once for the row and once for the column)
+    private int duplicatesInRowsAndColumns;
+    private int nonEmptyCellCount;
 
+    // Zobrist hash of the state, every cell value and every part of the state of subclasses has a pseudo random key
+    // that is xor-ed into this when it is added and removed again when it is removed (see getStateHashKey())
+    private long stateHash;
+
+    // bitmasks of the numbers that are in a row/column while solving (see maskOf())
+    private final long[] numbersInRows;
+    private final long[] numbersInColumns;
+
+    private BranchingHeuristic branchingHeuristic = BranchingHeuristic.MINIMUM_REMAINING_VALUES;
+
+    private SolveStatistics lastSolveStatistics;
+
+    // moves that can be undone (see applyMove()) encoded with cellIndex * (MAX_GRID_SIZE + 1) + previous value,
+    // created on first use
+    private int[] moveTrail;
+    private int moveCount;
+
+    // indices of all cells that were filled while solving in the order they were filled, created on first use
+    // (negative index -> filled by propagation, encoded with -1 - cellIndex)
+    private int[] filledCells;
+    private int filledCellCount;
+    private int cellsFilledByPropagation;
+
+    // cells that were already filled by parent tasks when this is a copy searching in parallel (see ParallelSearch)
+    private int cellsFilledByPropagationInParentTasks;
+    private int cellsFilledBySearchInParentTasks;
+
+
+    /**
+     * Creates a Puzzle with {@code gridSize} {@code *} {@code gridSize} empty cells.
+     *
+     * @throws IllegalArgumentException if {@code gridSize} is negative or too big
+     */
+    protected AbstractPuzzle(final int gridSize) {
+        if (gridSize < 0 || gridSize > MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("gridSize has to be between 0 and " + MAX_GRID_SIZE + "!");
+        }
+        this.gridSize = gridSize;
+        grid = new byte[gridSize * gridSize]; // all cells are EMPTY_CELL
+        numberCountsInRows = new int[gridSize * (gridSize + 1)];
+        numberCountsInColumns = new int[gridSize * (gridSize + 1)];
+        numbersInRows = new long[gridSize];
+        numbersInColumns = new long[gridSize];
+    }
+
+    /**
+     * Creates a Puzzle with the values of {@code grid} (indexed by {@code [row][column]}).
+     *
+     * @throws IllegalArgumentException if {@code grid} is not a square, is too big or contains a value that is
+     *                                  neither {@link #EMPTY_CELL} nor in the valid range from {@code 1} to the
+     *                                  number of rows
+     */
     protected AbstractPuzzle(final int[][] grid) {
-        this.grid = grid;
-        this.gridSize = grid.length;
+        this(grid.length);
+        for (int row = 0; row < gridSize; row++) {
+            if (grid[row].length != gridSize) {
+                throw new IllegalArgumentException("Input grid is not a square!");
+            }
+            for (int column = 0; column < gridSize; column++) {
+                final int value = grid[row][column];
+                if (value < EMPTY_CELL || value > gridSize) {
+                    throw new IllegalArgumentException("Input grid contains invalid value " + value + "!");
+                }
+                this.grid[row * gridSize + column] = (byte) value;
+                addToRowAndColumn(row, column, value);
+                stateHash ^= getCellKey(row * gridSize + column, value);
+            }
+        }
+    }
+
+    /**
+     * Creates a Puzzle with the same cell values as {@code other}.
+     */
+    protected AbstractPuzzle(final AbstractPuzzle other) {
+        gridSize = other.gridSize;
+        grid = other.grid.clone();
+        numberCountsInRows = other.numberCountsInRows.clone();
+        numberCountsInColumns = other.numberCountsInColumns.clone();
+        duplicatesInRowsAndColumns = other.duplicatesInRowsAndColumns;
+        nonEmptyCellCount = other.nonEmptyCellCount;
+        stateHash = other.stateHash;
+        numbersInRows = new long[gridSize];
+        numbersInColumns = new long[gridSize];
     }
 
 
@@ -100,7 +292,11 @@ public abstract class AbstractPuzzle {
 
     // package-private for tests
     final int[][] getGrid() {
-        return grid;
+        final int[][] rows = new int[gridSize][gridSize];
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            rows[cellIndex / gridSize][cellIndex % gridSize] = grid[cellIndex];
+        }
+        return rows;
     }
 
     public final int getGridSize() {
@@ -112,11 +308,26 @@ public abstract class AbstractPuzzle {
     }
 
 
+    public final BranchingHeuristic getBranchingHeuristic() {
+        return branchingHeuristic;
+    }
+
+    /**
+     * Sets the {@link BranchingHeuristic BranchingHeuristic} that is used by {@link #solve()}.
+     * <p>The default is {@link BranchingHeuristic#MINIMUM_REMAINING_VALUES MINIMUM_REMAINING_VALUES}.</p>
+     *
+     * @throws NullPointerException if {@code branchingHeuristic} is {@code null}
+     */
+    public final void setBranchingHeuristic(final BranchingHeuristic branchingHeuristic) {
+        this.branchingHeuristic = requireNonNull(branchingHeuristic);
+    }
+
+
     /**
      * Returns the value of the cell in the specified {@code row} and {@code column}.
      */
     public final int getCell(final int row, final int column) {
-        return grid[row][column];
+        return grid[row * gridSize + column];
     }
 
     /**
@@ -141,7 +352,7 @@ public abstract class AbstractPuzzle {
 
         // empty cell is always ok
         if (value == EMPTY_CELL) {
-            grid[row][column] = EMPTY_CELL;
+            writeCell(row * gridSize + column, EMPTY_CELL);
             return SetCellResult.SUCCESS;
         }
 
@@ -150,19 +361,158 @@ public abstract class AbstractPuzzle {
             return SetCellResult.INVALID_VALUE;
         }
 
-        final int previousCellValue = grid[row][column];
-        grid[row][column] = value;
+        final int previousCellValue = grid[row * gridSize + column];
+        writeCell(row * gridSize + column, value);
+
+        // the counters tell whether there are conflicts, the cells only have to be searched if so
+        if (!hasConflicts(row, column)) {
+            return SetCellResult.SUCCESS;
+        }
 
         final Set<Cell> conflictingCells = getConflictingCells(row, column, true);
 
         if (conflictingCells.isEmpty()) {
             return SetCellResult.SUCCESS;
         } else {
-            grid[row][column] = previousCellValue; // undo setting invalid number
+            writeCell(row * gridSize + column, previousCellValue); // undo setting invalid number
             return new SetCellResult(false, conflictingCells);
         }
     }
 
+    /**
+     * Returns {@code true} if and only if every cell that has to be filled is filled and there are no
+     * {@link #getConflictingCells(int, int, boolean) conflicts}, i.e. the Puzzle is solved.
+     * <p>This takes constant time since it only looks at counters that are updated on every cell change.</p>
+     */
+    public final boolean isComplete() {
+        return !hasEmptyCellsToFill() && !hasConflicts();
+    }
+
+
+    // all changes of cell values after construction go through here (see cellChanged())
+    private void writeCell(final int cellIndex, final int value) {
+        final int previousValue = grid[cellIndex];
+        if (previousValue != value) {
+            grid[cellIndex] = (byte) value;
+            removeFromRowAndColumn(cellIndex / gridSize, cellIndex % gridSize, previousValue);
+            addToRowAndColumn(cellIndex / gridSize, cellIndex % gridSize, value);
+            stateHash ^= getCellKey(cellIndex, previousValue) ^ getCellKey(cellIndex, value);
+            cellChanged(cellIndex / gridSize, cellIndex % gridSize, previousValue, value);
+        }
+    }
+
+    /**
+     * Returns a 64-bit hash of the cell values and the state of subclasses (like the groups of a {@link Killer}) that
+     * takes constant time since it is updated on every change (Zobrist hashing).
+     * <p>Equal Puzzles have equal state hashes. Different Puzzles have different state hashes with a very high
+     * probability, but not always.</p>
+     */
+    public final long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Adds {@code key} to the {@link #getStateHash() state hash} if it is not part of it or removes it if it is.
+     * Subclasses have to call this whenever a part of their state that is compared in
+     * {@link #isEqualTo(AbstractPuzzle) isEqualTo()} changes, but not in copy constructors (the state hash is copied).
+     */
+    protected final void toggleStateHashKey(final long key) {
+        stateHash ^= key;
+    }
+
+    /**
+     * Returns the pseudo random key with the specified {@code index} for the {@link #getStateHash() state hash}.
+     * <p>The non-negative indices are used for the cell values, subclasses can use negative indices or
+     * {@code getStateHashKey()} of a combination of their state as the index.</p>
+     */
+    protected static long getStateHashKey(final long index) {
+        // output number index + 1 of SplitMix64 with seed 0 -> no table of keys is needed
+        long key = (index + 1) * 0x9E3779B97F4A7C15L;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+    private static long getCellKey(final int cellIndex, final int value) {
+        // empty cells are not part of the state hash
+        return value == EMPTY_CELL ? 0L : getStateHashKey((long) cellIndex * (MAX_GRID_SIZE + 1) + value);
+    }
+
+    private void addToRowAndColumn(final int row, final int column, final int value) {
+        if (value != EMPTY_CELL) {
+            nonEmptyCellCount++;
+            if (numberCountsInRows[row * (gridSize + 1) + value]++ > 0) {
+                duplicatesInRowsAndColumns++;
+            }
+            if (numberCountsInColumns[column * (gridSize + 1) + value]++ > 0) {
+                duplicatesInRowsAndColumns++;
+            }
+        }
+    }
+
+    private void removeFromRowAndColumn(final int row, final int column, final int value) {
+        if (value != EMPTY_CELL) {
+            nonEmptyCellCount--;
+            if (--numberCountsInRows[row * (gridSize + 1) + value] > 0) {
+                duplicatesInRowsAndColumns--;
+            }
+            if (--numberCountsInColumns[column * (gridSize + 1) + value] > 0) {
+                duplicatesInRowsAndColumns--;
+            }
+        }
+    }
+
+    /**
+     * Called after the value of the cell in the specified {@code row} and {@code column} was changed from
+     * {@code previousValue} to {@code value} by any method of this class (including solving). Subclasses can override
+     * this to keep state that is derived from the cell values up to date. The default does nothing.
+     */
+    protected void cellChanged(final int row, final int column, final int previousValue, final int value) {}
+
+    /**
+     * Returns a mark for the current state of the cells that {@link #rollbackTo(int)} can go back to.
+     */
+    final int mark() {
+        return moveCount;
+    }
+
+    /**
+     * Sets the value of the cell in the specified {@code row} and {@code column} to {@code value} without checking
+     * for conflicts and remembers the previous value so that the move can be undone with {@link #rollbackTo(int)}.
+     *
+     * @throws IllegalArgumentException if {@code value} is neither {@link #EMPTY_CELL} nor in the valid range from
+     *                                  {@code 1} to {@link #gridSize}
+     */
+    final void applyMove(final int row, final int column, final int value) {
+        if (value < EMPTY_CELL || value > gridSize) {
+            throw new IllegalArgumentException("Invalid value " + value + "!");
+        }
+        if (moveTrail == null) {
+            moveTrail = new int[getNumberOfCells() + 1];
+        } else if (moveCount == moveTrail.length) {
+            moveTrail = Arrays.copyOf(moveTrail, 2 * moveCount);
+        }
+        final int cellIndex = row * gridSize + column;
+        moveTrail[moveCount++] = cellIndex * (MAX_GRID_SIZE + 1) + grid[cellIndex];
+        writeCell(cellIndex, value);
+    }
+
+    /**
+     * Undoes all moves that were applied with {@link #applyMove(int, int, int) applyMove()} after {@code mark} was
+     * returned by {@link #mark()}, most recent move first.
+     *
+     * @throws IllegalArgumentException if {@code mark} is not a mark of the current moves
+     */
+    final void rollbackTo(final int mark) {
+        if (mark < 0 || mark > moveCount) {
+            throw new IllegalArgumentException("Invalid mark " + mark + "!");
+        }
+        while (moveCount > mark) {
+            final int move = moveTrail[--moveCount];
+            writeCell(move / (MAX_GRID_SIZE + 1), move % (MAX_GRID_SIZE + 1));
+        }
+    }
+
 
     /**
      * Trys to solve the Puzzle.
@@ -177,128 +527,707 @@ public abstract class AbstractPuzzle {
      * and there was exactly one way to do so
      */
     public final SolveResult solve() {
+        return solve(SolveAlgorithm.BACKTRACKING);
+    }
+
+    /**
+     * Trys to solve the Puzzle with the specified {@link SolveAlgorithm algorithm}.
+     * <p>If the solve was successful, the Puzzle will be in a solved state, otherwise the sate will be the same as
+     * before.</p>
+     *
+     * @return the same as {@link #solve()}
+     * @throws NullPointerException          if {@code algorithm} is {@code null}
+     * @throws UnsupportedOperationException if this Puzzle cannot be solved with {@code algorithm}
+     */
+    public final SolveResult solve(final SolveAlgorithm algorithm) {
+        return solveInternal(getExactCoverProblemFor(algorithm), 1, null);
+    }
+
+    /**
+     * Trys to solve the Puzzle but gives up after {@code timeout}.
+     *
+     * @return the same as {@link #solve(SolveAlgorithm, Duration)}
+     * @throws NullPointerException if {@code timeout} is {@code null}
+     */
+    public final SolveResult solve(final Duration timeout) {
+        return solve(SolveAlgorithm.BACKTRACKING, timeout);
+    }
+
+    /**
+     * Trys to solve the Puzzle with the specified {@link SolveAlgorithm algorithm} but gives up after {@code timeout}
+     * or when the current thread is interrupted.
+     * <p>If the solve was successful, the Puzzle will be in a solved state, otherwise the sate will be the same as
+     * before. The interrupt status of the current thread is not cleared.</p>
+     *
+     * @return the same as {@link #solve()} or {@link SolveResult#TIMED_OUT SolveResult.TIMED_OUT} if {@code timeout}
+     * elapsed or {@link SolveResult#CANCELLED SolveResult.CANCELLED} if the current thread was interrupted before the
+     * result was known
+     * @throws NullPointerException          if {@code algorithm} or {@code timeout} is {@code null}
+     * @throws UnsupportedOperationException if this Puzzle cannot be solved with {@code algorithm}
+     */
+    public final SolveResult solve(final SolveAlgorithm algorithm, final Duration timeout) {
+        requireNonNull(timeout);
+        return solveInternal(getExactCoverProblemFor(algorithm), 1, timeout);
+    }
+
+    /**
+     * Trys to solve the Puzzle with backtracking on all available processors.
+     *
+     * @return the same as {@link #solve()}
+     * @see #solveInParallel(int)
+     */
+    public final SolveResult solveInParallel() {
+        return solveInParallel(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Trys to solve the Puzzle with backtracking on {@code parallelism} threads.
+     * <p>The upper levels of the search tree are split into tasks that are searched in a {@link ForkJoinPool} with
+     * work stealing. All tasks stop as soon as a second solution was found. If there are multiple solutions, the
+     * solution the Puzzle is in afterwards might be a different one than with {@link #solve()}.</p>
+     *
+     * @return the same as {@link #solve()}
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public final SolveResult solveInParallel(final int parallelism) {
+        requirePositive(parallelism, "parallelism has to be positive!");
+        return solveInternal(null, parallelism, null);
+    }
+
+    // uses backtracking if exactCoverProblem is null, can't be cancelled if timeout is null
+    private SolveResult solveInternal(final DancingLinks exactCoverProblem, final int parallelism,
+                                      final Duration timeout) {
 
         if (hasToValidateBeforeSolve() && isInvalid()) {
             return SolveResult.NOT_IN_VALID_STATE_FOR_SOLVE;
         }
 
-        final AbstractPuzzle copy = getCopy();
+        // a second solution is enough to know that the solution is not unique
+        final SolveContext context = timeout == null ? new SolveContext(2) : new SolveContext(2, timeout);
+        searchForSolutions(context, exactCoverProblem, parallelism);
+        if (context.isCancelled()) {
+            return SolveResult.CANCELLED;
+        }
+        if (context.isTimedOut()) {
+            return SolveResult.TIMED_OUT;
+        }
 
-        if (!solveInNormalOrder()) {
+        final int solutionCount = context.getSolutionCount();
+        if (solutionCount == 0) {
             return SolveResult.NO_SOLUTION;
         }
 
-        if (!copy.solveInReverseOrder()) {
-            throw new IllegalStateException("Unable to solve copy while original could be solved");
+        applySolution(context.getFirstSolution());
+
+        return solutionCount == 1 ? SolveResult.ONE_SOLUTION : SolveResult.MULTIPLE_SOLUTIONS;
+    }
+
+    /**
+     * Counts the solutions of the Puzzle but stops as soon as {@code limit} solutions were found.
+     * <p>The state of the Puzzle will be the same as before.</p>
+     *
+     * @return the number of solutions (at most {@code limit}) or {@code 0} if this Puzzle is in a state that is not
+     * ready for being solved (e.g. missing groups in a {@link Killer})
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public final int countSolutions(final int limit) {
+        return countSolutions(limit, SolveAlgorithm.BACKTRACKING);
+    }
+
+    /**
+     * Counts the solutions of the Puzzle with the specified {@link SolveAlgorithm algorithm} but stops as soon as
+     * {@code limit} solutions were found.
+     * <p>The state of the Puzzle will be the same as before.</p>
+     *
+     * @return the same as {@link #countSolutions(int)}
+     * @throws IllegalArgumentException      if {@code limit} is negative
+     * @throws NullPointerException          if {@code algorithm} is {@code null}
+     * @throws UnsupportedOperationException if this Puzzle cannot be solved with {@code algorithm}
+     */
+    public final int countSolutions(final int limit, final SolveAlgorithm algorithm) {
+
+        requireNonNegative(limit, "limit has to be positive or 0!");
+        final DancingLinks exactCoverProblem = getExactCoverProblemFor(algorithm);
+
+        if (hasToValidateBeforeSolve() && isInvalid()) {
+            return 0;
         }
 
-        return this.equals(copy) ? SolveResult.ONE_SOLUTION : SolveResult.MULTIPLE_SOLUTIONS;
+        final SolveContext context = new SolveContext(limit);
+        searchForSolutions(context, exactCoverProblem, 1);
+        return context.getSolutionCount();
+    }
+
+    private DancingLinks getExactCoverProblemFor(final SolveAlgorithm algorithm) {
+
+        final DancingLinks exactCoverProblem = switch (requireNonNull(algorithm)) {
+            case BACKTRACKING -> null;
+            case DANCING_LINKS -> toExactCoverProblem();
+        };
+
+        if (algorithm == SolveAlgorithm.DANCING_LINKS && exactCoverProblem == null) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be solved with " + algorithm);
+        }
+
+        return exactCoverProblem;
+    }
+
+    /**
+     * Returns an exact cover model of this puzzle with its current cell values or {@code null} if this puzzle cannot
+     * be modelled as an exact cover problem (the default).
+     */
+    DancingLinks toExactCoverProblem() {
+        return null;
+    }
+
+    /**
+     * Returns {@link SolveStatistics SolveStatistics} about the first solution that was found by the last call to
+     * {@link #solve()} or {@link #countSolutions(int) countSolutions()} or {@code null} if no solution was found.
+     */
+    public final SolveStatistics getLastSolveStatistics() {
+        return lastSolveStatistics;
+    }
+
+    // uses backtracking if exactCoverProblem is null, the state of the Puzzle will be the same as before
+    private void searchForSolutions(final SolveContext context, final DancingLinks exactCoverProblem,
+                                    final int parallelism) {
+        if (exactCoverProblem != null) {
+            exactCoverProblem.search(context);
+        } else if (parallelism > 1) {
+            final ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                // split until there are a few tasks per thread so that work stealing can balance uneven subtrees
+                final int splitDepth = Integer.SIZE - Integer.numberOfLeadingZeros(parallelism - 1) + 2;
+                pool.invoke(new ParallelSearch(getCopyForSolve(), context, splitDepth));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            searchWithBacktracking(context, getNumbersForSolve(false), null);
+        }
+
+        lastSolveStatistics = context.getFirstSolutionStatistics();
+    }
+
+    // package-private for SolveCache
+    final void applySolution(final int[] solution) {
+        for (int cellIndex = 0; cellIndex < solution.length; cellIndex++) {
+            writeCell(cellIndex, solution[cellIndex]);
+        }
     }
 
     // package-private for tests
     final boolean solveInNormalOrder() {
-        return solveInternal(getNextEmptyCellForSolve(0, 0, true), getNumbersForSolve(false), null);
+        return solveInOrder(getNumbersForSolve(false), null);
     }
 
     // package-private for tests
     final boolean solveInReverseOrder() {
-        return solveInternal(getNextEmptyCellForSolve(0, 0, true), getNumbersForSolve(true), null);
+        return solveInOrder(getNumbersForSolve(true), null);
     }
 
     // package-private for tests
     final boolean solveInRandomOrder(final Random random) {
-        return solveInternal(getNextEmptyCellForSolve(0, 0, true), getNumbersForSolve(false), requireNonNull(random));
+        return solveInOrder(getNumbersForSolve(false), requireNonNull(random));
     }
 
-    private ArrayList<Integer> getNumbersForSolve(final boolean inReverseOrder) {
+    // package-private for KillerGenerator, returns the first two solutions that are found (or fewer if there are
+    // fewer) indexed by row * gridSize + column, the state of the Puzzle will be the same as before
+    final int[][] findUpToTwoSolutions() {
+        if (hasToValidateBeforeSolve() && isInvalid()) {
+            return new int[0][];
+        }
+        final SolveContext context = new SolveContext(2);
+        searchForSolutions(context, null, 1);
+        return switch (context.getSolutionCount()) {
+            case 0 -> new int[0][];
+            case 1 -> new int[][]{context.getFirstSolution()};
+            default -> new int[][]{context.getFirstSolution(), context.getSecondSolution()};
+        };
+    }
+
+    private boolean solveInOrder(final int[] numbers, final Random random) {
+        final SolveContext context = new SolveContext(1);
+        searchWithBacktracking(context, numbers, random);
+        lastSolveStatistics = context.getFirstSolutionStatistics();
+        if (context.getSolutionCount() == 0) {
+            return false;
+        }
+        applySolution(context.getFirstSolution());
+        return true;
+    }
+
+    private int[] getNumbersForSolve(final boolean inReverseOrder) {
         // get all numbers that are an option for filling a cell
-        final ArrayList<Integer> numbers = new ArrayList<>(gridSize);
-        if (inReverseOrder) {
-            for (int number = gridSize; number >= 1; number--) {
-                numbers.add(number);
-            }
-        } else {
-            for (int number = 1; number <= gridSize; number++) {
-                numbers.add(number);
-            }
+        final int[] numbers = new int[gridSize];
+        for (int index = 0; index < gridSize; index++) {
+            numbers[index] = inReverseOrder ? gridSize - index : index + 1;
         }
         return numbers;
     }
 
-    private boolean solveInternal(final Cell currentCell, final ArrayList<Integer> numbers, final Random random) {
+    private static void shuffle(final int[] numbers, final Random random) {
+        // Fisher-Yates shuffle (same as Collections.shuffle() but without boxing)
+        for (int index = numbers.length - 1; index > 0; index--) {
+            final int otherIndex = random.nextInt(index + 1);
+            final int number = numbers[index];
+            numbers[index] = numbers[otherIndex];
+            numbers[otherIndex] = number;
+        }
+    }
+
+    private void searchWithBacktracking(final SolveContext context, final int[] numbers, final Random random) {
+        if (!context.isStopped()) {
+            prepareForSearch();
+            search(0, numbers, random, context);
+        }
+    }
+
+    private void prepareForSearch() {
+        if (filledCells == null) {
+            filledCells = new int[gridSize * gridSize];
+        }
+        filledCellCount = 0;
+        cellsFilledByPropagation = 0;
+        prepareForSolve();
+    }
+
+    // returns true if the search should stop, all cells that were filled are empty again afterwards
+    private boolean search(final int previousCellIndex, final int[] numbers, final Random random,
+                           final SolveContext context) {
+
+        if (context.isStopped()) {
+            return true; // another task found enough solutions
+        }
+
+        final int filledCellCountBefore = filledCellCount;
+
+        // fill all cells that only have one possible number before guessing
+        if (!propagate()) {
+            unfillCellsUntil(filledCellCountBefore);
+            return false; // found contradiction -> go back in recursion
+        }
+
+        final int currentCellIndex = getCellIndexForSolve(previousCellIndex);
 
-        if (currentCell == null) {
-            return true; // all cells are filled (only valid fills happen) -> found solution
+        if (currentCellIndex == NO_CELL) {
+            // all cells are filled (only valid fills happen) -> found solution
+            addSolution(context);
+            unfillCellsUntil(filledCellCountBefore);
+            return context.isStopped();
         }
 
-        final int currentRow = currentCell.row, currentColumn = currentCell.column;
+        final int currentRow = currentCellIndex / gridSize, currentColumn = currentCellIndex % gridSize;
 
-        final Cell nextEmptyCell = getNextEmptyCellForSolve(currentRow, currentColumn, false);
+        // all numbers that can be put into the current cell without any conflicts
+        final long candidates = getCandidatesForSolve(currentRow, currentColumn);
 
         // shuffle when solving in random order
-        if (random != null) {
+        if (random != null && candidates != 0L) {
             shuffle(numbers, random);
         }
 
+        boolean stop = false;
+
         for (final int number : numbers) {
-            grid[currentRow][currentColumn] = number; // choose next number
+            if ((candidates & maskOf(number)) == 0) {
+                continue; // number would lead to conflicts
+            }
+
+            fillCell(currentCellIndex, number, false); // choose next number
 
-            // no conflicts && recursive solve successful -> found solution
             // copy numbers when solving in random order (shuffle in recursion would otherwise impact iteration here)
-            if (getConflictingCells(currentRow, currentColumn, false).isEmpty()
-                    && solveInternal(nextEmptyCell, random == null ? numbers : new ArrayList<>(numbers), random)) {
+            stop = search(currentCellIndex, random == null ? numbers : numbers.clone(), random, context);
+
+            unfillCellsUntil(filledCellCountBefore); // undo and try next number
+
+            if (stop) {
+                break; // found enough solutions
+            }
+        }
+
+        unfillCellsUntil(filledCellCountBefore);
+        return stop;
+    }
+
+    private void fillCell(final int cellIndex, final int number, final boolean byPropagation) {
+        placeForSolve(cellIndex / gridSize, cellIndex % gridSize, number);
+        filledCells[filledCellCount++] = byPropagation ? -1 - cellIndex : cellIndex;
+        if (byPropagation) {
+            cellsFilledByPropagation++;
+        }
+    }
+
+    private void unfillCellsUntil(final int filledCellCountToKeep) {
+        while (filledCellCount > filledCellCountToKeep) {
+            int cellIndex = filledCells[--filledCellCount];
+            if (cellIndex < 0) {
+                cellIndex = -1 - cellIndex;
+                cellsFilledByPropagation--;
+            }
+            removeForSolve(cellIndex / gridSize, cellIndex % gridSize, grid[cellIndex]);
+        }
+    }
+
+    // returns false if a contradiction was found
+    private boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            final int filledCellCountBefore = filledCellCount;
+            if (!fillNakedSingles() || !fillHiddenSingles()) {
+                return false;
+            }
+            changed = filledCellCount != filledCellCountBefore;
+        }
+        return true;
+    }
+
+    // fills all cells that have exactly one candidate, returns false if a cell without candidates was found
+    private boolean fillNakedSingles() {
+        for (int cellIndex = 0; cellIndex < gridSize * gridSize; cellIndex++) {
+            final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+            if (!isCellToFillForSolve(row, column)) {
+                continue;
+            }
+
+            final long candidates = getCandidatesForSolve(row, column);
+            if (candidates == 0L) {
+                return false; // cell cannot be filled anymore
+            }
+            if (Long.bitCount(candidates) == 1) {
+                fillCell(cellIndex, Long.numberOfTrailingZeros(candidates) + 1, true);
+            }
+        }
+        return true;
+    }
+
+    // fills all numbers that have exactly one possible cell in a unit (see getNumberOfUnitsWithAllNumbers()),
+    // returns false if a number without possible cells was found
+    private boolean fillHiddenSingles() {
+        final long allNumbers = getNumbersInRange(1, gridSize);
+
+        for (int unit = 0; unit < getNumberOfUnitsWithAllNumbers(); unit++) {
+
+            long numbersInUnit = 0L;
+            long possibleOnce = 0L; // numbers that are candidates of at least one cell
+            long possibleTwice = 0L; // numbers that are candidates of at least two cells
+
+            for (int position = 0; position < gridSize; position++) {
+                final int cellIndex = getCellIndexInUnit(unit, position);
+                final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+                if (grid[cellIndex] != EMPTY_CELL) {
+                    numbersInUnit |= maskOf(grid[cellIndex]);
+                } else if (isCellToFillForSolve(row, column)) {
+                    final long candidates = getCandidatesForSolve(row, column);
+                    possibleTwice |= possibleOnce & candidates;
+                    possibleOnce |= candidates;
+                }
+            }
+
+            final long missingNumbers = allNumbers & ~numbersInUnit;
+            if ((missingNumbers & ~possibleOnce) != 0L) {
+                return false; // a number can't be put anywhere in this unit anymore
+            }
+
+            long hiddenSingles = missingNumbers & possibleOnce & ~possibleTwice;
+            while (hiddenSingles != 0L) {
+                final long numberMask = Long.lowestOneBit(hiddenSingles);
+                hiddenSingles &= ~numberMask;
+                if (!fillOnlyPossibleCellInUnit(unit, numberMask)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean fillOnlyPossibleCellInUnit(final int unit, final long numberMask) {
+        // candidates have to be calculated again since other hidden singles might have been filled in the meantime
+        for (int position = 0; position < gridSize; position++) {
+            final int cellIndex = getCellIndexInUnit(unit, position);
+            final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+            if (isCellToFillForSolve(row, column) && (getCandidatesForSolve(row, column) & numberMask) != 0L) {
+                fillCell(cellIndex, Long.numberOfTrailingZeros(numberMask) + 1, true);
                 return true;
             }
         }
+        return false; // the only possible cell was filled with another number
+    }
+
+    private void addSolution(final SolveContext context) {
+        final int solutionNumber = context.addSolution();
+        if (solutionNumber <= 2) {
+            final int[] solution = new int[gridSize * gridSize];
+            for (int cellIndex = 0; cellIndex < solution.length; cellIndex++) {
+                solution[cellIndex] = grid[cellIndex];
+            }
+            if (solutionNumber == 1) {
+                context.setFirstSolution(solution, new SolveStatistics(
+                        cellsFilledByPropagationInParentTasks + cellsFilledByPropagation,
+                        cellsFilledBySearchInParentTasks + filledCellCount - cellsFilledByPropagation));
+            } else {
+                context.setSecondSolution(solution);
+            }
+        }
+    }
+
+    private AbstractPuzzle getCopyForSolve() {
+        final AbstractPuzzle copy = getCopy();
+        copy.branchingHeuristic = branchingHeuristic;
+        return copy;
+    }
+
+    /**
+     * Task that searches for solutions of its own copy of a Puzzle. As long as {@code splitDepth} is positive, a
+     * subtask is forked for every candidate of the next cell to fill. Every subtask gets a new copy, so no state is
+     * shared between the tasks except for the {@link SolveContext SolveContext}.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class ParallelSearch extends RecursiveAction {
+
+        private final AbstractPuzzle puzzle;
+        private final SolveContext context;
+        private final int splitDepth;
+
+        private ParallelSearch(final AbstractPuzzle puzzle, final SolveContext context, final int splitDepth) {
+            this.puzzle = puzzle;
+            this.context = context;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected void compute() {
+            if (splitDepth <= 0) {
+                puzzle.searchWithBacktracking(context, puzzle.getNumbersForSolve(false), null);
+            } else if (!context.isStopped()) {
+                puzzle.prepareForSearch();
+                invokeAll(puzzle.splitSearch(context, splitDepth));
+            }
+        }
+    }
+
+    // returns the subtasks for all candidates of the next cell to fill (or none if there is nothing left to search)
+    private List<ParallelSearch> splitSearch(final SolveContext context, final int splitDepth) {
+
+        if (!propagate()) {
+            return List.of(); // found contradiction
+        }
+
+        final int cellIndex = getCellIndexForSolve(0);
+        if (cellIndex == NO_CELL) {
+            addSolution(context); // propagation filled all cells
+            return List.of();
+        }
+
+        final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+        final long candidates = getCandidatesForSolve(row, column);
+        final List<ParallelSearch> subtasks = new ArrayList<>(Long.bitCount(candidates));
+
+        for (int number = 1; number <= gridSize; number++) {
+            if ((candidates & maskOf(number)) == 0) {
+                continue;
+            }
+            // the copy starts with all cells that were filled so far
+            final AbstractPuzzle copy = getCopyForSolve();
+            copy.writeCell(cellIndex, number);
+            copy.cellsFilledByPropagationInParentTasks = cellsFilledByPropagationInParentTasks
+                    + cellsFilledByPropagation;
+            copy.cellsFilledBySearchInParentTasks = cellsFilledBySearchInParentTasks
+                    + filledCellCount - cellsFilledByPropagation + 1;
+            subtasks.add(new ParallelSearch(copy, context, splitDepth - 1));
+        }
 
-        // no number was valid -> undo and go back in recursion
-        grid[currentRow][currentColumn] = EMPTY_CELL;
-        return false;
+        return subtasks;
     }
 
 
-    protected Cell getNextEmptyCellForSolve(final int startRow, final int startColumn, final boolean inclusive) {
+    // cells are indexed with row * gridSize + column, returns NO_CELL if all cells are filled
+    private int getCellIndexForSolve(final int previousCellIndex) {
+        return switch (branchingHeuristic) {
+            // all cells before previousCellIndex were already filled in row-major order
+            case FIRST_EMPTY_CELL -> getNextCellIndexToFillForSolve(previousCellIndex);
+            case MINIMUM_REMAINING_VALUES -> getCellIndexWithFewestCandidatesForSolve();
+        };
+    }
 
-        boolean lookingAtFirstCell = true;
+    private int getNextCellIndexToFillForSolve(final int startCellIndexInclusive) {
+        for (int cellIndex = startCellIndexInclusive; cellIndex < gridSize * gridSize; cellIndex++) {
+            if (isCellToFillForSolve(cellIndex / gridSize, cellIndex % gridSize)) {
+                return cellIndex;
+            }
+        }
+        return NO_CELL; // reached end and did not find a cell to fill
+    }
 
-        // start row with startRow
-        for (int row = startRow; row < gridSize; row++) {
+    private int getCellIndexWithFewestCandidatesForSolve() {
+        int bestCellIndex = NO_CELL;
+        int fewestCandidates = Integer.MAX_VALUE;
 
-            // start column with startColumn (but only in first iteration of outer loop)
-            for (int column = (row == startRow ? startColumn : 0); column < gridSize; column++) {
+        for (int cellIndex = 0; cellIndex < gridSize * gridSize; cellIndex++) {
+            final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+            if (!isCellToFillForSolve(row, column)) {
+                continue;
+            }
 
-                // skip the first cell if not inclusive
-                if (lookingAtFirstCell) {
-                    lookingAtFirstCell = false;
-                    if (!inclusive) continue;
+            final int candidateCount = Long.bitCount(getCandidatesForSolve(row, column));
+            if (candidateCount < fewestCandidates) {
+                bestCellIndex = cellIndex;
+                fewestCandidates = candidateCount;
+                if (candidateCount <= 1) {
+                    break; // no candidates -> dead end, one candidate -> forced, can't get any better
                 }
+            }
+        }
+
+        return bestCellIndex;
+    }
+
+    /**
+     * Returns the number of units (e.g. rows, columns or sub-grids) that contain every number from {@code 1} to
+     * {@link #gridSize} exactly once in a solved state. These units are used to find numbers that only have one
+     * possible cell in a unit while solving. The default is {@code 0}.
+     */
+    protected int getNumberOfUnitsWithAllNumbers() {
+        return 0;
+    }
+
+    /**
+     * Returns the index ({@code row * gridSize + column}) of the cell at {@code position} (from {@code 0} to
+     * {@link #gridSize} {@code - 1}) in the specified {@code unit} (see {@link #getNumberOfUnitsWithAllNumbers()}).
+     */
+    protected int getCellIndexInUnit(final int unit, final int position) {
+        throw new IndexOutOfBoundsException("There are no units with all numbers");
+    }
+
+    /**
+     * Returns whether the cell in the specified {@code row} and {@code column} still has to be filled while solving.
+     */
+    protected boolean isCellToFillForSolve(final int row, final int column) {
+        return grid[row * gridSize + column] == EMPTY_CELL;
+    }
+
+
+    /**
+     * Returns a bitmask where only the bit for {@code number} is set (bit {@code number - 1}).
+     * <p>Bitmasks of this form are used while solving to represent a set of numbers.</p>
+     */
+    protected static long maskOf(final int number) {
+        return 1L << (number - 1);
+    }
 
-                if (grid[row][column] == EMPTY_CELL) {
-                    return new Cell(row, column);
+    /**
+     * Returns a bitmask (see {@link #maskOf(int)}) of all numbers in the range from {@code lowerBoundInclusive} to
+     * {@code upperBoundInclusive} that are also in the valid range from {@code 1} to {@link #gridSize}.
+     */
+    protected final long getNumbersInRange(final int lowerBoundInclusive, final int upperBoundInclusive) {
+        final int lower = Math.max(lowerBoundInclusive, 1), upper = Math.min(upperBoundInclusive, gridSize);
+        if (lower > upper) {
+            return 0L;
+        }
+        // all bits up to upper minus all bits below lower
+        return (-1L >>> (Long.SIZE - upper)) & ~(maskOf(lower) - 1);
+    }
+
+    /**
+     * Called once before solving to set up the state that is needed by {@link #getCandidatesForSolve(int, int)}.
+     * Overriding implementations have to call {@code super.prepareForSolve()}.
+     */
+    protected void prepareForSolve() {
+        fill(numbersInRows, 0L);
+        fill(numbersInColumns, 0L);
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                final int number = grid[row * gridSize + column];
+                if (number != EMPTY_CELL) {
+                    numbersInRows[row] |= maskOf(number);
+                    numbersInColumns[column] |= maskOf(number);
                 }
             }
         }
+    }
+
+    /**
+     * Returns a bitmask (see {@link #maskOf(int)}) of all numbers that can be put into the empty cell in the specified
+     * {@code row} and {@code column} while solving without leading to conflicts.
+     * <p>This must not allocate anything since it is called for every cell that the solver visits. Overriding
+     * implementations have to restrict the result of {@code super.getCandidatesForSolve()}.</p>
+     */
+    protected long getCandidatesForSolve(final int row, final int column) {
+        return getNumbersInRange(1, gridSize) & ~(numbersInRows[row] | numbersInColumns[column]);
+    }
+
+    /**
+     * Puts {@code number} into the empty cell in the specified {@code row} and {@code column} while solving.
+     * Overriding implementations have to call {@code super.placeForSolve()}.
+     */
+    protected void placeForSolve(final int row, final int column, final int number) {
+        writeCell(row * gridSize + column, number);
+        numbersInRows[row] |= maskOf(number);
+        numbersInColumns[column] |= maskOf(number);
+    }
 
-        return null; // reached end and did not find an empty cell
+    /**
+     * Undoes {@link #placeForSolve(int, int, int) placeForSolve()} for the cell in the specified {@code row} and
+     * {@code column} that currently has the value {@code number}.
+     * Overriding implementations have to call {@code super.removeForSolve()}.
+     */
+    protected void removeForSolve(final int row, final int column, final int number) {
+        writeCell(row * gridSize + column, EMPTY_CELL);
+        numbersInRows[row] &= ~maskOf(number);
+        numbersInColumns[column] &= ~maskOf(number);
     }
 
 
+    /**
+     * Returns {@code true} if and only if {@link #getConflictingCells(int, int, boolean) getConflictingCells()} would
+     * find conflicts for the non-empty cell in the specified {@code row} and {@code column}.
+     * <p>This must take constant time since it is called for every {@link #setCell(int, int, int) setCell()}, so it
+     * should only look at counters that are updated in {@link #cellChanged(int, int, int, int) cellChanged()}.
+     * Overriding implementations have to include the result of {@code super.hasConflicts()}.</p>
+     */
+    protected boolean hasConflicts(final int row, final int column) {
+        final int value = grid[row * gridSize + column];
+        return numberCountsInRows[row * (gridSize + 1) + value] > 1
+                || numberCountsInColumns[column * (gridSize + 1) + value] > 1;
+    }
+
+    /**
+     * Returns {@code true} if and only if any non-empty cell has
+     * {@link #getConflictingCells(int, int, boolean) conflicts}.
+     * <p>This must take constant time (see {@link #hasConflicts(int, int)}). Overriding implementations have to
+     * include the result of {@code super.hasConflicts()}.</p>
+     */
+    protected boolean hasConflicts() {
+        return duplicatesInRowsAndColumns > 0;
+    }
+
+    /**
+     * Returns {@code true} if and only if there are cells that are {@link #EMPTY_CELL} but have to be filled in a
+     * solved Puzzle.
+     * <p>This must take constant time (see {@link #hasConflicts(int, int)}). The default returns whether any cell is
+     * empty.</p>
+     */
+    protected boolean hasEmptyCellsToFill() {
+        return nonEmptyCellCount < getNumberOfCells();
+    }
+
     protected Set<Cell> getConflictingCells(final int row, final int column, final boolean getAll) {
 
-        final Set<Cell> conflicts = getAll ? new HashSet<>() : new HashSet<>(1); // only need 1 when !getAll
+        final Set<Cell> conflicts = new CellSet(gridSize);
 
         // check for appearance of grid[row][column] in same row/column
         for (int index = 0; index < gridSize; index++) {
             // grid[row][column] twice in row
-            if (row != index && grid[row][column] == grid[index][column]) {
-                conflicts.add(new Cell(index, column));
+            if (row != index && grid[row * gridSize + column] == grid[index * gridSize + column]) {
+                conflicts.add(Cell.of(index, column));
                 if (!getAll) {
                     return conflicts;
                 }
             }
             // grid[row][column] twice in column
-            if ((column != index && grid[row][column] == grid[row][index])) {
-                conflicts.add(new Cell(row, index));
+            if ((column != index && grid[row * gridSize + column] == grid[row * gridSize + index])) {
+                conflicts.add(Cell.of(row, index));
                 if (!getAll) {
                     return conflicts;
                 }
@@ -317,35 +1246,13 @@ public abstract class AbstractPuzzle {
     protected abstract boolean hasToValidateBeforeSolve();
 
     /**
-     * Returns {@code false} if and only if {@link #grid} is a square with {@link #gridSize} {@code *} {@link #gridSize}
-     * cells, every cell is either {@link #EMPTY_CELL} or in the valid range from {@code 1} to {@link #gridSize}
-     * (both inclusive) and there are no {@link #getConflictingCells(int, int, boolean) conflicts}.
+     * Returns {@code false} if and only if every cell is either {@link #EMPTY_CELL} or in the valid range from
+     * {@code 1} to {@link #gridSize} (both inclusive) and there are no
+     * {@link #getConflictingCells(int, int, boolean) conflicts}.
      */
     protected boolean isInvalid() {
-
-        if (grid.length != gridSize) {
-            return true; // wrong amount of rows
-        }
-
-        for (int row = 0; row < gridSize; row++) {
-            if (grid[row].length != gridSize) {
-                return true; // wrong amount of columns
-            }
-
-            for (int column = 0; column < gridSize; column++) {
-                final int currentCell = grid[row][column];
-
-                if (currentCell == EMPTY_CELL) {
-                    continue; // empty cell is always ok
-                }
-
-                if (currentCell < 1 || currentCell > gridSize || !getConflictingCells(row, column, false).isEmpty()) {
-                    return true;
-                }
-            }
-        }
-
-        return false; // no rule was violated -> valid
+        // values out of range are already rejected by the constructors and setCell()
+        return hasConflicts();
     }
 
 
@@ -357,7 +1264,7 @@ public abstract class AbstractPuzzle {
         if (obj == null || getClass() != obj.getClass()) return false;
 
         final AbstractPuzzle other = (AbstractPuzzle) obj;
-        return this.gridSize == other.gridSize && deepEquals(this.grid, other.grid) && this.isEqualTo(other);
+        return this.gridSize == other.gridSize && Arrays.equals(this.grid, other.grid) && this.isEqualTo(other);
     }
 
     protected abstract boolean isEqualTo(final AbstractPuzzle other);
@@ -365,7 +1272,7 @@ public abstract class AbstractPuzzle {
     @Override
     public int hashCode() {
         int result = hash(gridSize);
-        result = 31 * result + deepHashCode(grid);
+        result = 31 * result + Long.hashCode(stateHash); // the state hash already covers the state of subclasses
         return result;
     }
 }
@@ -5,7 +5,6 @@ import java.util.Set;
 import static java.lang.Math.sqrt;
 import static java.util.Arrays.fill;
 import static java.util.Objects.hash;
-import static util.Arrays.deepCopyOf;
 import static util.Checks.requireNonNegative;
 
 /**
@@ -23,21 +22,43 @@ public abstract class AbstractSudoku extends AbstractPuzzle {
 
     protected final int subGridSize;
 
+    // how often each number is in each sub-grid, indexed by subGridIndex * (gridSize + 1) + number, updated on every
+    // cell change (see cellChanged())
+    private final int[] numberCountsInSubGrids;
+    private int duplicatesInSubGrids; // cells with a value that is already in their sub-grid
+
+    // bitmasks of the numbers that are in a sub-grid while solving (see maskOf())
+    private final long[] numbersInSubGrids;
+
 
     protected AbstractSudoku(final int subGridSize) {
-        super(new int[requireNonNegative(subGridSize, "subGridSize has to be positive or 0!") * subGridSize][subGridSize * subGridSize]);
+        super(requireNonNegative(subGridSize, "subGridSize has to be positive or 0!") * subGridSize);
         this.subGridSize = subGridSize;
-        for (final int[] row : grid) {
-            fill(row, EMPTY_CELL);
-        }
+        numberCountsInSubGrids = new int[gridSize * (gridSize + 1)];
+        numbersInSubGrids = new long[gridSize];
     }
 
     protected AbstractSudoku(final int[][] grid) {
-        super(deepCopyOf(grid));
+        super(grid);
         subGridSize = (int) sqrt(gridSize);
         if (subGridSize * subGridSize != gridSize) {
             throw new IllegalArgumentException("Input grid did not have a size that is a square number!");
         }
+        numberCountsInSubGrids = new int[gridSize * (gridSize + 1)];
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                addToSubGrid(getSubGridIndex(row, column), this.grid[row * gridSize + column]);
+            }
+        }
+        numbersInSubGrids = new long[gridSize];
+    }
+
+    protected AbstractSudoku(final AbstractSudoku other) {
+        super(other);
+        subGridSize = other.subGridSize;
+        numberCountsInSubGrids = other.numberCountsInSubGrids.clone();
+        duplicatesInSubGrids = other.duplicatesInSubGrids;
+        numbersInSubGrids = new long[gridSize];
     }
 
 
@@ -46,6 +67,98 @@ public abstract class AbstractSudoku extends AbstractPuzzle {
     }
 
 
+    // sub-grids are numbered from left to right and from top to bottom
+    private int getSubGridIndex(final int row, final int column) {
+        return (row / subGridSize) * subGridSize + column / subGridSize;
+    }
+
+    private void addToSubGrid(final int subGridIndex, final int value) {
+        if (value != EMPTY_CELL && numberCountsInSubGrids[subGridIndex * (gridSize + 1) + value]++ > 0) {
+            duplicatesInSubGrids++;
+        }
+    }
+
+    private void removeFromSubGrid(final int subGridIndex, final int value) {
+        if (value != EMPTY_CELL && --numberCountsInSubGrids[subGridIndex * (gridSize + 1) + value] > 0) {
+            duplicatesInSubGrids--;
+        }
+    }
+
+    @Override
+    protected void cellChanged(final int row, final int column, final int previousValue, final int value) {
+        super.cellChanged(row, column, previousValue, value);
+        removeFromSubGrid(getSubGridIndex(row, column), previousValue);
+        addToSubGrid(getSubGridIndex(row, column), value);
+    }
+
+    @Override
+    protected void prepareForSolve() {
+        super.prepareForSolve();
+        fill(numbersInSubGrids, 0L);
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                if (grid[row * gridSize + column] != EMPTY_CELL) {
+                    numbersInSubGrids[getSubGridIndex(row, column)] |= maskOf(grid[row * gridSize + column]);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected long getCandidatesForSolve(final int row, final int column) {
+        return super.getCandidatesForSolve(row, column) & ~numbersInSubGrids[getSubGridIndex(row, column)];
+    }
+
+    @Override
+    protected void placeForSolve(final int row, final int column, final int number) {
+        super.placeForSolve(row, column, number);
+        numbersInSubGrids[getSubGridIndex(row, column)] |= maskOf(number);
+    }
+
+    @Override
+    protected void removeForSolve(final int row, final int column, final int number) {
+        super.removeForSolve(row, column, number);
+        numbersInSubGrids[getSubGridIndex(row, column)] &= ~maskOf(number);
+    }
+
+
+    @Override
+    protected int getNumberOfUnitsWithAllNumbers() {
+        return 3 * gridSize; // all rows, columns and sub-grids
+    }
+
+    @Override
+    protected int getCellIndexInUnit(final int unit, final int position) {
+        return switch (unit / gridSize) {
+            case 0 -> unit * gridSize + position; // row
+            case 1 -> position * gridSize + (unit - gridSize); // column
+            default -> {
+                // sub-grid, positions are numbered from left to right and from top to bottom
+                final int subGrid = unit - 2 * gridSize;
+                final int row = (subGrid / subGridSize) * subGridSize + position / subGridSize;
+                final int column = (subGrid % subGridSize) * subGridSize + position % subGridSize;
+                yield row * gridSize + column;
+            }
+        };
+    }
+
+    @Override
+    DancingLinks toExactCoverProblem() {
+        return new DancingLinks(subGridSize, grid);
+    }
+
+
+    @Override
+    protected boolean hasConflicts(final int row, final int column) {
+        return super.hasConflicts(row, column) || numberCountsInSubGrids[
+                getSubGridIndex(row, column) * (gridSize + 1) + grid[row * gridSize + column]] > 1;
+    }
+
+    @Override
+    protected boolean hasConflicts() {
+        return super.hasConflicts() || duplicatesInSubGrids > 0;
+    }
+
     @Override
     protected Set<Cell> getConflictingCells(final int row, final int column, final boolean getAll) {
 
@@ -69,8 +182,9 @@ public abstract class AbstractSudoku extends AbstractPuzzle {
             for (int columnIndex = columnLowerBoundInclusive; columnIndex < columnUpperBoundExclusive; columnIndex++) {
 
                 // don't check grid[row][column] == grid[row][column] (always true)
-                if ((row != rowIndex || column != columnIndex) && grid[row][column] == grid[rowIndex][columnIndex]) {
-                    conflicts.add(new Cell(rowIndex, columnIndex)); // grid[row][column] twice in sub-grid
+                if ((row != rowIndex || column != columnIndex)
+                        && grid[row * gridSize + column] == grid[rowIndex * gridSize + columnIndex]) {
+                    conflicts.add(Cell.of(rowIndex, columnIndex)); // grid[row][column] twice in sub-grid
                     if (!getAll) {
                         return conflicts;
                     }
@@ -0,0 +1,246 @@
+package model;
+
+import model.AbstractPuzzle.Cell;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Arrays.fill;
+import static java.util.Objects.requireNonNull;
+import static util.Checks.requireNonNegative;
+
+/**
+ * {@link java.util.Set Set} of the {@link Cell cells} of a grid with a fixed size that is backed by a bitset with one
+ * bit for every cell (bit {@code row * gridSize + column}).
+ * <p>Adding, removing and looking up cells does not hash or allocate anything. {@link #addAll(Collection) addAll()}
+ * (union), {@link #retainAll(Collection) retainAll()} (intersection) and {@link #removeAll(Collection) removeAll()}
+ * (difference) work on whole words of the bitset if the other collection is a CellSet with the same grid size.
+ * Iteration returns the interned cells of {@link Cell#of(int, int) Cell.of()} in row-major order. Cells outside of the
+ * grid and {@code null} can't be added.</p>
+ *
+ * @author Luca Kellermann
+ */
+public final class CellSet extends AbstractSet<Cell> {
+
+    private final int gridSize;
+    private final long[] words;
+    private int size;
+
+
+    /**
+     * Creates an empty CellSet for a grid with {@code gridSize} rows and columns.
+     *
+     * @throws IllegalArgumentException if {@code gridSize} is negative
+     */
+    public CellSet(final int gridSize) {
+        this.gridSize = requireNonNegative(gridSize, "gridSize has to be positive or 0!");
+        words = new long[(gridSize * gridSize + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Creates a CellSet for a grid with {@code gridSize} rows and columns that contains all of the {@code cells}.
+     *
+     * @throws IllegalArgumentException if {@code gridSize} is negative or one of the {@code cells} is outside of the
+     *                                  grid
+     * @throws NullPointerException     if {@code cells} or one of its elements is {@code null}
+     */
+    public CellSet(final int gridSize, final Collection<? extends Cell> cells) {
+        this(gridSize);
+        addAll(cells);
+    }
+
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    // returns -1 if o is no cell in the grid
+    private int indexOf(final Object o) {
+        if (!(o instanceof Cell cell)) {
+            return -1;
+        }
+        final int row = cell.row(), column = cell.column();
+        return row < 0 || row >= gridSize || column < 0 || column >= gridSize ? -1 : row * gridSize + column;
+    }
+
+    private boolean hasSameGridSize(final Collection<?> c) {
+        return c instanceof CellSet other && other.gridSize == gridSize;
+    }
+
+    private void updateSize() {
+        size = 0;
+        for (final long word : words) {
+            size += Long.bitCount(word);
+        }
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        final int index = indexOf(o);
+        return index >= 0 && (words[index / Long.SIZE] & (1L << index)) != 0L;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code cell} is outside of the grid
+     * @throws NullPointerException     if {@code cell} is {@code null}
+     */
+    @Override
+    public boolean add(final Cell cell) {
+        final int index = indexOf(requireNonNull(cell));
+        if (index < 0) {
+            throw new IllegalArgumentException("Cell is outside of the grid!");
+        }
+        final long word = words[index / Long.SIZE];
+        words[index / Long.SIZE] = word | (1L << index); // shift distance is taken modulo 64
+        if (word == words[index / Long.SIZE]) {
+            return false; // already contained
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        final int index = indexOf(o);
+        if (index < 0 || (words[index / Long.SIZE] & (1L << index)) == 0L) {
+            return false;
+        }
+        words[index / Long.SIZE] &= ~(1L << index);
+        size--;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        fill(words, 0L);
+        size = 0;
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends Cell> c) {
+        if (!hasSameGridSize(c)) {
+            return super.addAll(c);
+        }
+        final int sizeBefore = size;
+        final long[] otherWords = ((CellSet) c).words;
+        for (int index = 0; index < words.length; index++) {
+            words[index] |= otherWords[index];
+        }
+        updateSize();
+        return size != sizeBefore;
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        if (!hasSameGridSize(c)) {
+            return super.retainAll(c);
+        }
+        final int sizeBefore = size;
+        final long[] otherWords = ((CellSet) c).words;
+        for (int index = 0; index < words.length; index++) {
+            words[index] &= otherWords[index];
+        }
+        updateSize();
+        return size != sizeBefore;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> c) {
+        if (!hasSameGridSize(c)) {
+            return super.removeAll(c);
+        }
+        final int sizeBefore = size;
+        final long[] otherWords = ((CellSet) c).words;
+        for (int index = 0; index < words.length; index++) {
+            words[index] &= ~otherWords[index];
+        }
+        updateSize();
+        return size != sizeBefore;
+    }
+
+    @Override
+    public boolean containsAll(final Collection<?> c) {
+        if (!hasSameGridSize(c)) {
+            return super.containsAll(c);
+        }
+        final long[] otherWords = ((CellSet) c).words;
+        for (int index = 0; index < words.length; index++) {
+            if ((otherWords[index] & ~words[index]) != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        return new Iterator<>() {
+
+            private int nextIndex = nextIndexFrom(0);
+            private int lastIndex = -1;
+
+            @Override
+            public boolean hasNext() {
+                return nextIndex >= 0;
+            }
+
+            @Override
+            public Cell next() {
+                if (nextIndex < 0) {
+                    throw new NoSuchElementException();
+                }
+                lastIndex = nextIndex;
+                nextIndex = nextIndexFrom(nextIndex + 1);
+                return Cell.of(lastIndex / gridSize, lastIndex % gridSize);
+            }
+
+            @Override
+            public void remove() {
+                if (lastIndex < 0) {
+                    throw new IllegalStateException();
+                }
+                words[lastIndex / Long.SIZE] &= ~(1L << lastIndex);
+                size--;
+                lastIndex = -1;
+            }
+        };
+    }
+
+    // returns the index of the first cell in this set with an index of at least startIndex or -1 if there is none
+    private int nextIndexFrom(final int startIndex) {
+        int wordIndex = startIndex / Long.SIZE;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+        long word = words[wordIndex] & (-1L << startIndex); // shift distance is taken modulo 64
+        while (word == 0L) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o instanceof CellSet other && other.gridSize == gridSize) {
+            return Arrays.equals(words, other.words);
+        }
+        return super.equals(o);
+    }
+}
@@ -0,0 +1,237 @@
+package model;
+
+import model.AbstractPuzzle.SolveStatistics;
+
+import static model.AbstractPuzzle.EMPTY_CELL;
+
+/**
+ * Exact cover model of a Sudoku-like grid with sub-grids that is solved with Donald Knuth's Dancing Links
+ * implementation of Algorithm X.
+ * <p>Each option (a row in the exact cover matrix) is a number in a cell and covers four constraints (columns in the
+ * exact cover matrix): the cell is filled, the number is in the row, the number is in the column and the number is in
+ * the sub-grid. Options and constraints that are already decided by prefilled cells are left out of the matrix.</p>
+ * <p>All nodes are stored in parallel {@code int} arrays, so searching does not allocate anything.</p>
+ *
+ * @author Luca Kellermann
+ */
+final class DancingLinks {
+
+    private static final int ROOT = 0;
+    private static final int CONSTRAINTS_PER_OPTION = 4;
+
+
+    private final int gridSize;
+
+    // prefilled cells indexed by row * gridSize + column
+    private final int[] givens;
+
+    // whether two prefilled cells satisfy the same constraint (-> no solution)
+    private final boolean hasConflictingGivens;
+
+    // the links of all nodes, node 0 is the root, the constraint headers follow and the option nodes come last
+    private final int[] left, right, up, down;
+    private final int[] constraintOfNode;
+    private final int[] optionOfNode; // option = cellIndex * gridSize + number - 1
+    private final int[] sizeOfConstraint; // indexed by header node
+
+    // options that are currently chosen in the search
+    private final int[] chosenOptions;
+    private int chosenOptionCount;
+
+    private SolveContext context;
+
+
+    DancingLinks(final int subGridSize, final byte[] grid) {
+        gridSize = subGridSize * subGridSize;
+        final int numberOfCells = gridSize * gridSize;
+        final int numberOfConstraints = CONSTRAINTS_PER_OPTION * numberOfCells;
+
+        givens = new int[numberOfCells];
+        chosenOptions = new int[numberOfCells];
+
+        // mark all constraints that are already satisfied by prefilled cells
+        final boolean[] satisfied = new boolean[numberOfConstraints];
+        final int[] constraints = new int[CONSTRAINTS_PER_OPTION];
+        boolean conflict = false;
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            final int number = grid[cellIndex];
+            givens[cellIndex] = number;
+            if (number != EMPTY_CELL) {
+                getConstraints(subGridSize, cellIndex, number, constraints);
+                for (final int constraint : constraints) {
+                    conflict |= satisfied[constraint];
+                    satisfied[constraint] = true;
+                }
+            }
+        }
+        hasConflictingGivens = conflict;
+
+        final int nodeCapacity = 1 + numberOfConstraints + CONSTRAINTS_PER_OPTION * numberOfCells * gridSize;
+        left = new int[nodeCapacity];
+        right = new int[nodeCapacity];
+        up = new int[nodeCapacity];
+        down = new int[nodeCapacity];
+        constraintOfNode = new int[nodeCapacity];
+        optionOfNode = new int[nodeCapacity];
+        sizeOfConstraint = new int[1 + numberOfConstraints];
+
+        // create a circular list of headers for all constraints that still have to be satisfied
+        left[ROOT] = right[ROOT] = ROOT;
+        for (int constraint = 0; constraint < numberOfConstraints; constraint++) {
+            final int header = 1 + constraint;
+            up[header] = down[header] = header;
+            constraintOfNode[header] = header;
+            if (!satisfied[constraint]) {
+                left[header] = left[ROOT];
+                right[header] = ROOT;
+                right[left[ROOT]] = header;
+                left[ROOT] = header;
+            }
+        }
+
+        // add one row of nodes for every option that does not collide with prefilled cells
+        int nextNode = 1 + numberOfConstraints;
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            if (givens[cellIndex] != EMPTY_CELL) {
+                continue;
+            }
+            nextOption:
+            for (int number = 1; number <= gridSize; number++) {
+                getConstraints(subGridSize, cellIndex, number, constraints);
+                for (final int constraint : constraints) {
+                    if (satisfied[constraint]) {
+                        continue nextOption;
+                    }
+                }
+
+                final int firstNode = nextNode;
+                for (final int constraint : constraints) {
+                    final int header = 1 + constraint;
+                    final int node = nextNode++;
+
+                    // append node at the bottom of its constraint
+                    constraintOfNode[node] = header;
+                    optionOfNode[node] = cellIndex * gridSize + number - 1;
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    sizeOfConstraint[header]++;
+
+                    // append node at the end of its option
+                    if (node == firstNode) {
+                        left[node] = right[node] = node;
+                    } else {
+                        left[node] = left[firstNode];
+                        right[node] = firstNode;
+                        right[left[firstNode]] = node;
+                        left[firstNode] = node;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void getConstraints(final int subGridSize, final int cellIndex, final int number,
+                                       final int[] constraints) {
+        final int gridSize = subGridSize * subGridSize, numberOfCells = gridSize * gridSize;
+        final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+        final int subGrid = (row / subGridSize) * subGridSize + column / subGridSize;
+
+        constraints[0] = cellIndex;                                                // cell is filled
+        constraints[1] = numberOfCells + row * gridSize + number - 1;              // number is in row
+        constraints[2] = 2 * numberOfCells + column * gridSize + number - 1;       // number is in column
+        constraints[3] = 3 * numberOfCells + subGrid * gridSize + number - 1;      // number is in sub-grid
+    }
+
+
+    /**
+     * Searches for solutions until the {@code context} is stopped or the whole search space was searched.
+     */
+    void search(final SolveContext context) {
+        this.context = context;
+        chosenOptionCount = 0;
+        if (!hasConflictingGivens) {
+            search();
+        }
+        this.context = null;
+    }
+
+    // returns true if the search should stop
+    private boolean search() {
+
+        if (context.isStopped()) {
+            return true;
+        }
+
+        // all constraints are satisfied -> found solution
+        if (right[ROOT] == ROOT) {
+            if (context.addSolution() == 1) {
+                final int[] solution = givens.clone();
+                for (int index = 0; index < chosenOptionCount; index++) {
+                    final int option = chosenOptions[index];
+                    solution[option / gridSize] = option % gridSize + 1;
+                }
+                // there is no propagation, every empty cell is filled by choosing an option
+                context.setFirstSolution(solution, new SolveStatistics(0, chosenOptionCount));
+            }
+            return context.isStopped();
+        }
+
+        // choose the constraint with the fewest options to keep the search tree small
+        int constraint = right[ROOT];
+        for (int header = right[constraint]; header != ROOT; header = right[header]) {
+            if (sizeOfConstraint[header] < sizeOfConstraint[constraint]) {
+                constraint = header;
+            }
+        }
+        if (sizeOfConstraint[constraint] == 0) {
+            return false; // constraint cannot be satisfied anymore -> dead end
+        }
+
+        cover(constraint);
+        boolean stop = false;
+
+        for (int node = down[constraint]; node != constraint && !stop; node = down[node]) {
+            chosenOptions[chosenOptionCount++] = optionOfNode[node];
+            for (int other = right[node]; other != node; other = right[other]) {
+                cover(constraintOfNode[other]);
+            }
+
+            stop = search();
+
+            // undo in reverse order
+            for (int other = left[node]; other != node; other = left[other]) {
+                uncover(constraintOfNode[other]);
+            }
+            chosenOptionCount--;
+        }
+
+        uncover(constraint);
+        return stop;
+    }
+
+    private void cover(final int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int node = right[row]; node != row; node = right[node]) {
+                down[up[node]] = down[node];
+                up[down[node]] = up[node];
+                sizeOfConstraint[constraintOfNode[node]]--;
+            }
+        }
+    }
+
+    private void uncover(final int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int node = left[row]; node != row; node = left[node]) {
+                sizeOfConstraint[constraintOfNode[node]]++;
+                down[up[node]] = node;
+                up[down[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+}
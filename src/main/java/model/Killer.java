@@ -5,11 +5,9 @@ import model.Killer.GroupsUpdateResult.FailureReason;
 import java.util.*;
 
 import static java.util.Arrays.deepToString;
-import static java.util.Collections.emptySet;
+import static java.util.Arrays.fill;
 import static java.util.Collections.unmodifiableSet;
-import static java.util.Objects.hash;
 import static java.util.Set.copyOf;
-import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -91,8 +89,55 @@ public final class Killer extends AbstractSudoku {
     public static final int TOTAL_SUM = (1 + 2 + 3 + 4 + 5 + 6 + 7 + 8 + 9) * 9; // 405
 
 
-    private final Set<Group> groups = new HashSet<>();
-    private final Map<Cell, Group> groupsForCells = new HashMap<>(getNumberOfCells());
+    // COMBINATIONS[n][sum] -> bitmasks (see maskOf()) of all sets of n distinct numbers from 1 to 9 with that sum
+    private static final long[][][] COMBINATIONS = createCombinations();
+
+
+    private static final int NO_GROUP = -1;
+
+    // Sets of cells are stored as bitboards in two longs: the cell with index row * GRID_SIZE + column is the bit with
+    // this index in the low long if the index is smaller than 64 and the bit with index - 64 in the high long otherwise
+    private static final long ALL_CELLS_LOW = -1L;
+    private static final long ALL_CELLS_HIGH = -1L >>> (2 * Long.SIZE - GRID_SIZE * GRID_SIZE);
+    private static final long FIRST_COLUMN_LOW = getColumnBitboard(0, false);
+    private static final long FIRST_COLUMN_HIGH = getColumnBitboard(0, true);
+    private static final long LAST_COLUMN_LOW = getColumnBitboard(GRID_SIZE - 1, false);
+    private static final long LAST_COLUMN_HIGH = getColumnBitboard(GRID_SIZE - 1, true);
+
+    // bitboards of all rows, columns and sub-grids (in the order of getCellIndexInUnit())
+    private static final int NUMBER_OF_UNITS = 3 * GRID_SIZE;
+    private static final long[] CELLS_OF_UNITS_LOW = createUnitBitboards(false);
+    private static final long[] CELLS_OF_UNITS_HIGH = createUnitBitboards(true);
+
+
+    // groups have dense ids from 0 to groupCount - 1 (the last group gets a new id when another group is removed)
+    private final Group[] groupsById = new Group[getNumberOfCells()];
+    private int groupCount;
+    private final int[] groupIdsForCells = new int[getNumberOfCells()]; // indexed by row * gridSize + column
+    private final long[] cellsOfGroupsLow = new long[getNumberOfCells()]; // bitboards, indexed by group id
+    private final long[] cellsOfGroupsHigh = new long[getNumberOfCells()];
+
+    // state of the filled cells of each group that is updated on every cell change, indexed by group id
+    private final int[] sumsOfGroups = new int[getNumberOfCells()];
+    private final int[] filledCellsOfGroups = new int[getNumberOfCells()];
+    private final long[] numbersInGroups = new long[getNumberOfCells()]; // see maskOf()
+    private final int[] duplicatesInGroups = new int[getNumberOfCells()]; // cells with a value that is already in group
+    // how often each number is in each group, indexed by groupId * (gridSize + 1) + number
+    private final int[] numberCountsInGroups = new int[getNumberOfCells() * (gridSize + 1)];
+    private int groupsWithConflicts; // groups with duplicates or an invalid sum (see groupHasConflicts())
+
+    // Regions are sets of cells with distinct numbers and a known sum that are derived from the groups with the
+    // "45 rule" before solving (see findRegionsWithKnownSums()) and restrict the candidates just like groups do.
+    // They are indexed by region id, every unit has at most two regions (its innies and its outies).
+    private int regionCount;
+    private int[] sumsOfRegions;
+    private int[] cellCountsOfRegions;
+    private long[] cellsOfRegionsLow, cellsOfRegionsHigh;
+    private long[] numbersInRegions; // updated while solving, see maskOf()
+    // the ids of the regions of a cell are regionIdsForCells[regionOffsetsForCells[cellIndex]] up to
+    // regionIdsForCells[regionOffsetsForCells[cellIndex + 1] - 1]
+    private int[] regionOffsetsForCells;
+    private int[] regionIdsForCells;
 
 
     /**
@@ -101,28 +146,90 @@ public final class Killer extends AbstractSudoku {
      */
     public Killer() {
         super(SUB_GRID_SIZE);
+        fill(groupIdsForCells, NO_GROUP);
     }
 
-    // package-private constructor for tests
+    // package-private constructor for tests and KillerGenerator
     Killer(final int[][] grid, final Set<Group> groups) {
         super(grid);
-        this.groups.addAll(groups);
-        for (final Group group : this.groups) {
-            for (final Cell cell : group.cells) {
-                groupsForCells.put(cell, group);
+        fill(groupIdsForCells, NO_GROUP);
+        for (final Group group : groups) {
+            if (!group.cells.stream().allMatch(this::isInGrid)) {
+                throw new IllegalArgumentException("Input killer is not valid!");
             }
+            add(group);
         }
         if (gridSize != GRID_SIZE || isInvalid()) {
             throw new IllegalArgumentException("Input killer is not valid!");
         }
     }
 
+    private Killer(final Killer other) {
+        super(other);
+        System.arraycopy(other.groupsById, 0, groupsById, 0, groupsById.length);
+        groupCount = other.groupCount;
+        System.arraycopy(other.groupIdsForCells, 0, groupIdsForCells, 0, groupIdsForCells.length);
+        System.arraycopy(other.cellsOfGroupsLow, 0, cellsOfGroupsLow, 0, cellsOfGroupsLow.length);
+        System.arraycopy(other.cellsOfGroupsHigh, 0, cellsOfGroupsHigh, 0, cellsOfGroupsHigh.length);
+        System.arraycopy(other.sumsOfGroups, 0, sumsOfGroups, 0, sumsOfGroups.length);
+        System.arraycopy(other.filledCellsOfGroups, 0, filledCellsOfGroups, 0, filledCellsOfGroups.length);
+        System.arraycopy(other.numbersInGroups, 0, numbersInGroups, 0, numbersInGroups.length);
+        System.arraycopy(other.duplicatesInGroups, 0, duplicatesInGroups, 0, duplicatesInGroups.length);
+        System.arraycopy(other.numberCountsInGroups, 0, numberCountsInGroups, 0, numberCountsInGroups.length);
+        groupsWithConflicts = other.groupsWithConflicts;
+    }
+
 
     @Override
     protected Killer getCopy() {
-        return new Killer(grid, groups);
+        return new Killer(this);
+    }
+
+
+    private static long[][][] createCombinations() {
+        final int numberOfSets = 1 << GRID_SIZE;
+
+        // count the sets for every size and sum first to create arrays with the exact length
+        final int[][] counts = new int[Group.MAX_CELLS + 1][Group.MAX_SUM + 1];
+        for (long set = 0L; set < numberOfSets; set++) {
+            counts[Long.bitCount(set)][getSumOf(set)]++;
+        }
+
+        final long[][][] combinations = new long[Group.MAX_CELLS + 1][Group.MAX_SUM + 1][];
+        for (int n = 0; n <= Group.MAX_CELLS; n++) {
+            for (int sum = 0; sum <= Group.MAX_SUM; sum++) {
+                combinations[n][sum] = new long[counts[n][sum]];
+                counts[n][sum] = 0;
+            }
+        }
+        for (long set = 0L; set < numberOfSets; set++) {
+            final int n = Long.bitCount(set), sum = getSumOf(set);
+            combinations[n][sum][counts[n][sum]++] = set;
+        }
+
+        return combinations;
+    }
+
+    private static int getSumOf(long numbers) {
+        int sum = 0;
+        while (numbers != 0L) {
+            sum += Long.numberOfTrailingZeros(numbers) + 1;
+            numbers &= numbers - 1; // remove lowest number
+        }
+        return sum;
     }
 
+    /**
+     * Returns bitmasks (see {@link #maskOf(int)}) of all sets of {@code n} distinct numbers from {@code 1} to
+     * {@link #GRID_SIZE} that add up to {@code sum}. The returned array must not be modified.
+     */
+    // package-private for tests
+    static long[] getCombinations(final int n, final int sum) {
+        if (n < 0 || n > Group.MAX_CELLS || sum < 0 || sum > Group.MAX_SUM) {
+            return new long[0];
+        }
+        return COMBINATIONS[n][sum];
+    }
 
     private static int getMinSumForGroupWithNCells(final int n) {
         return (n * (n + 1)) / 2; // Gauss' method
@@ -132,105 +239,258 @@ public final class Killer extends AbstractSudoku {
         return Group.MAX_SUM - getMinSumForGroupWithNCells(GRID_SIZE - n);
     }
 
-    private FailureReason reasonWhyGroupIsInvalid(final Group group) {
-        return group.cells.isEmpty()
-                ? FailureReason.GROUP_IS_EMPTY
-                : reasonWhyGroupIsInvalidWithoutCells(group, emptySet());
-    }
+    // cellsLow and cellsHigh are a bitboard of the cells of the group, empty groups are handled by the callers
+    private FailureReason reasonWhyGroupIsInvalid(final int sum, final long cellsLow, final long cellsHigh) {
 
-    private FailureReason reasonWhyGroupIsInvalidWithoutCells(final Group group, final Set<Cell> withoutCells) {
+        final int cellCount = Long.bitCount(cellsLow) + Long.bitCount(cellsHigh);
 
-        final Set<Cell> cells = group.cells.stream().filter(not(withoutCells::contains)).collect(toSet());
-
-        if (cells.size() > Group.MAX_CELLS) {
+        if (cellCount > Group.MAX_CELLS) {
             return FailureReason.GROUP_HAS_TOO_MANY_CELLS;
         }
 
-        if (group.sum < getMinSumForGroupWithNCells(cells.size())
-                || group.sum > getMaxSumForGroupWithNCells(cells.size())) {
+        if (sum < getMinSumForGroupWithNCells(cellCount) || sum > getMaxSumForGroupWithNCells(cellCount)) {
             return FailureReason.GROUP_SUM_NOT_VALID;
         }
 
-        if (!allCellsAreConnected(cells)) {
+        if (!allCellsAreConnected(cellsLow, cellsHigh)) {
             return FailureReason.GROUP_CELLS_ARE_NOT_CONNECTED;
         }
 
-        // occurrences[n] == true -> cell value n + 1 already occurred in this group
-        final boolean[] occurrences = new boolean[gridSize];
-        int sum = 0;
+        long numbers = 0L;
+        int sumOfCells = 0;
         boolean hasEmptyCells = false;
 
         // calculate sum and check for double occurrences
-        for (final Cell cell : cells) {
-            final int cellValue = grid[cell.row()][cell.column()];
+        for (int word = 0; word < 2; word++) {
+            for (long cells = word == 0 ? cellsLow : cellsHigh; cells != 0L; cells &= cells - 1) {
+                final int cellValue = grid[word * Long.SIZE + Long.numberOfTrailingZeros(cells)];
 
-            if (cellValue == EMPTY_CELL) {
-                hasEmptyCells = true;
+                if (cellValue == EMPTY_CELL) {
+                    hasEmptyCells = true;
 
-            } else {
-                sum += cellValue;
+                } else {
+                    sumOfCells += cellValue;
 
-                // cellValue already occurred in this group
-                if (occurrences[cellValue - 1]) {
-                    return FailureReason.GROUP_VALUES_NOT_UNIQUE;
+                    // cellValue already occurred in this group
+                    if ((numbers & maskOf(cellValue)) != 0L) {
+                        return FailureReason.GROUP_VALUES_NOT_UNIQUE;
+                    }
+                    numbers |= maskOf(cellValue);
                 }
-                occurrences[cellValue - 1] = true;
             }
         }
 
-        final boolean sumIsValid = (hasEmptyCells && sum < group.sum) || (!hasEmptyCells && sum == group.sum);
+        final boolean sumIsValid = (hasEmptyCells && sumOfCells < sum) || (!hasEmptyCells && sumOfCells == sum);
 
         return sumIsValid ? null : FailureReason.GROUP_SUM_NOT_VALID;
     }
 
-    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private static boolean allCellsAreConnected(final Set<Cell> cells) {
-        return allCellsAreConnectedWithoutCells(cells, emptySet());
+    private static long getColumnBitboard(final int column, final boolean high) {
+        long cells = 0L;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            final int cellIndex = row * GRID_SIZE + column;
+            if ((cellIndex >= Long.SIZE) == high) {
+                cells |= 1L << cellIndex; // shift distance is taken modulo 64
+            }
+        }
+        return cells;
     }
 
-    private static boolean allCellsAreConnectedWithoutCells(Set<Cell> cells, final Set<Cell> withoutCells) {
+    private static long[] createUnitBitboards(final boolean high) {
+        final long[] units = new long[NUMBER_OF_UNITS];
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int column = 0; column < GRID_SIZE; column++) {
+                final int cellIndex = row * GRID_SIZE + column;
+                if ((cellIndex >= Long.SIZE) == high) {
+                    final int subGrid = (row / SUB_GRID_SIZE) * SUB_GRID_SIZE + column / SUB_GRID_SIZE;
+                    units[row] |= 1L << cellIndex; // shift distance is taken modulo 64
+                    units[GRID_SIZE + column] |= 1L << cellIndex;
+                    units[2 * GRID_SIZE + subGrid] |= 1L << cellIndex;
+                }
+            }
+        }
+        return units;
+    }
+
+    private static long getBitboard(final Set<Cell> cells, final boolean high) {
+        long bitboard = 0L;
+        for (final Cell cell : cells) {
+            final int cellIndex = cell.row() * GRID_SIZE + cell.column();
+            if ((cellIndex >= Long.SIZE) == high) {
+                bitboard |= 1L << cellIndex; // shift distance is taken modulo 64
+            }
+        }
+        return bitboard;
+    }
+
+    private static boolean allCellsAreConnected(final long cellsLow, final long cellsHigh) {
+
+        // flood fill starting with the first cell
+        long connectedLow = Long.lowestOneBit(cellsLow);
+        long connectedHigh = connectedLow == 0L ? Long.lowestOneBit(cellsHigh) : 0L;
+        long previousLow, previousHigh;
+
+        do {
+            previousLow = connectedLow;
+            previousHigh = connectedHigh;
+
+            // cells that can have a neighbor to the right/left in the same row
+            final long notLastLow = connectedLow & ~LAST_COLUMN_LOW;
+            final long notLastHigh = connectedHigh & ~LAST_COLUMN_HIGH;
+            final long notFirstLow = connectedLow & ~FIRST_COLUMN_LOW;
+            final long notFirstHigh = connectedHigh & ~FIRST_COLUMN_HIGH;
+
+            // shift the 128 bits of both longs by 1 (right/left) and by GRID_SIZE (down/up)
+            connectedLow |= (notLastLow << 1)
+                    | (notFirstLow >>> 1) | (notFirstHigh << (Long.SIZE - 1))
+                    | (connectedLow << GRID_SIZE)
+                    | (connectedLow >>> GRID_SIZE) | (connectedHigh << (Long.SIZE - GRID_SIZE));
+            connectedHigh |= (notLastHigh << 1) | (notLastLow >>> (Long.SIZE - 1))
+                    | (notFirstHigh >>> 1)
+                    | (connectedHigh << GRID_SIZE) | (previousLow >>> (Long.SIZE - GRID_SIZE))
+                    | (connectedHigh >>> GRID_SIZE);
+
+            // only keep neighbors that are part of cells
+            connectedLow &= cellsLow;
+            connectedHigh &= cellsHigh;
 
-        cells = cells.stream().filter(not(withoutCells::contains)).collect(toSet());
+        } while (connectedLow != previousLow || connectedHigh != previousHigh);
 
-        // a single cell is always connected
-        final int cellCount = cells.size();
-        if (cellCount <= 1) {
-            return true;
+        return connectedLow == cellsLow && connectedHigh == cellsHigh;
+    }
+
+    private boolean isInGrid(final Cell cell) {
+        return cell.row() >= 0 && cell.row() < gridSize && cell.column() >= 0 && cell.column() < gridSize;
+    }
+
+    // returns the id of group or NO_GROUP if group is not part of this Killer
+    private int getGroupId(final Group group) {
+        if (group == null || group.cells.isEmpty()) {
+            return NO_GROUP;
+        }
+        final Cell cell = group.cells.iterator().next();
+        if (!isInGrid(cell)) {
+            return NO_GROUP;
         }
+        final int groupId = groupIdsForCells[cell.row() * gridSize + cell.column()];
+        return groupId != NO_GROUP && groupsById[groupId].equals(group) ? groupId : NO_GROUP;
+    }
 
-        final HashSet<Cell> connectedCells = new HashSet<>(cellCount);
-        findConnectedCellsWithDepthFirstSearch(cells.iterator().next(), cells, connectedCells);
-        return connectedCells.size() == cellCount;
+    // group must not have cells that are already part of another group
+    private void add(final Group group) {
+        final int groupId = groupCount++;
+        groupsById[groupId] = group;
+        cellsOfGroupsLow[groupId] = getBitboard(group.cells, false);
+        cellsOfGroupsHigh[groupId] = getBitboard(group.cells, true);
+        toggleStateHashKey(getGroupKey(groupId));
+        for (final Cell cell : group.cells) {
+            final int cellIndex = cell.row() * gridSize + cell.column();
+            groupIdsForCells[cellIndex] = groupId;
+            addToGroup(groupId, grid[cellIndex]);
+        }
+        if (groupHasConflicts(groupId)) {
+            groupsWithConflicts++;
+        }
     }
 
-    private static void findConnectedCellsWithDepthFirstSearch(final Cell cell, final Set<Cell> allCells,
-                                                               final HashSet<Cell> connectedCells) {
-        connectedCells.add(cell);
+    private void remove(final int groupId) {
+        toggleStateHashKey(getGroupKey(groupId));
+        if (groupHasConflicts(groupId)) {
+            groupsWithConflicts--;
+        }
+        for (final Cell cell : groupsById[groupId].cells) {
+            groupIdsForCells[cell.row() * gridSize + cell.column()] = NO_GROUP;
+        }
 
-        for (int i = -2; i < 2; i++) {
-            final int rowDelta = i % 2;          // these two values will produce the following tuples:
-            final int columnDelta = (i + 1) % 2; // (0,-1); (-1,0); (0,1); (1,0)
+        // move the last group into the gap to keep the ids dense
+        final int lastGroupId = --groupCount;
+        if (groupId != lastGroupId) {
+            groupsById[groupId] = groupsById[lastGroupId];
+            cellsOfGroupsLow[groupId] = cellsOfGroupsLow[lastGroupId];
+            cellsOfGroupsHigh[groupId] = cellsOfGroupsHigh[lastGroupId];
+            for (final Cell cell : groupsById[groupId].cells) {
+                groupIdsForCells[cell.row() * gridSize + cell.column()] = groupId;
+            }
+            sumsOfGroups[groupId] = sumsOfGroups[lastGroupId];
+            filledCellsOfGroups[groupId] = filledCellsOfGroups[lastGroupId];
+            numbersInGroups[groupId] = numbersInGroups[lastGroupId];
+            duplicatesInGroups[groupId] = duplicatesInGroups[lastGroupId];
+            System.arraycopy(numberCountsInGroups, lastGroupId * (gridSize + 1),
+                    numberCountsInGroups, groupId * (gridSize + 1), gridSize + 1);
+        }
+
+        // clear the state of the last id for the next group that is added
+        groupsById[lastGroupId] = null;
+        cellsOfGroupsLow[lastGroupId] = 0L;
+        cellsOfGroupsHigh[lastGroupId] = 0L;
+        sumsOfGroups[lastGroupId] = 0;
+        filledCellsOfGroups[lastGroupId] = 0;
+        numbersInGroups[lastGroupId] = 0L;
+        duplicatesInGroups[lastGroupId] = 0;
+        fill(numberCountsInGroups, lastGroupId * (gridSize + 1), (lastGroupId + 1) * (gridSize + 1), 0);
+    }
+
+    // key of the group for the state hash, derived from its cells and sum
+    private long getGroupKey(final int groupId) {
+        return getStateHashKey(getStateHashKey(cellsOfGroupsLow[groupId])
+                ^ Long.rotateLeft(getStateHashKey(cellsOfGroupsHigh[groupId]), Integer.SIZE)
+                ^ groupsById[groupId].sum);
+    }
 
-            final Cell neighbor = new Cell(cell.row() + rowDelta, cell.column() + columnDelta);
-            if (allCells.contains(neighbor) && !connectedCells.contains(neighbor)) {
-                findConnectedCellsWithDepthFirstSearch(neighbor, allCells, connectedCells);
+    private void addToGroup(final int groupId, final int value) {
+        if (value != EMPTY_CELL) {
+            sumsOfGroups[groupId] += value;
+            filledCellsOfGroups[groupId]++;
+            if (numberCountsInGroups[groupId * (gridSize + 1) + value]++ == 0) {
+                numbersInGroups[groupId] |= maskOf(value);
+            } else {
+                duplicatesInGroups[groupId]++;
             }
         }
     }
 
-    private void remove(final Group group) {
-        // remove all references to group
-        groups.remove(group);
-        for (final Cell cell : group.cells) {
-            groupsForCells.remove(cell);
+    private void removeFromGroup(final int groupId, final int value) {
+        if (value != EMPTY_CELL) {
+            sumsOfGroups[groupId] -= value;
+            filledCellsOfGroups[groupId]--;
+            if (--numberCountsInGroups[groupId * (gridSize + 1) + value] == 0) {
+                numbersInGroups[groupId] &= ~maskOf(value);
+            } else {
+                duplicatesInGroups[groupId]--;
+            }
+        }
+    }
+
+    @Override
+    protected void cellChanged(final int row, final int column, final int previousValue, final int value) {
+        super.cellChanged(row, column, previousValue, value);
+        final int groupId = groupIdsForCells[row * gridSize + column];
+        if (groupId != NO_GROUP) {
+            final boolean hadConflicts = groupHasConflicts(groupId);
+            removeFromGroup(groupId, previousValue);
+            addToGroup(groupId, value);
+            if (hadConflicts != groupHasConflicts(groupId)) {
+                groupsWithConflicts += hadConflicts ? -1 : 1;
+            }
         }
     }
 
+    private boolean groupHasConflicts(final int groupId) {
+        return duplicatesInGroups[groupId] > 0 || groupHasInvalidSum(groupId);
+    }
+
+    // the sum of a group with empty cells has to be smaller than its group sum, a full group needs exactly its sum
+    private boolean groupHasInvalidSum(final int groupId) {
+        final int sum = sumsOfGroups[groupId];
+        final boolean hasEmptyCells = filledCellsOfGroups[groupId] < groupsById[groupId].cells.size();
+        return (hasEmptyCells && sum >= groupsById[groupId].sum) || (!hasEmptyCells && sum != groupsById[groupId].sum);
+    }
+
     /**
      * Returns an unmodifiable snapshot of the groups in this Killer.
      */
     public Set<Group> getGroups() {
-        return copyOf(groups);
+        return copyOf(Arrays.asList(groupsById).subList(0, groupCount));
     }
 
     private GroupsUpdateResult newGroupsUpdateFailure(final FailureReason failureReason) {
@@ -246,7 +506,11 @@ public final class Killer extends AbstractSudoku {
      * {@code null} if the cell is in no group.
      */
     public Group getGroupForCell(final int row, final int column) {
-        return groupsForCells.get(new Cell(row, column));
+        if (row < 0 || row >= gridSize || column < 0 || column >= gridSize) {
+            return null;
+        }
+        final int groupId = groupIdsForCells[row * gridSize + column];
+        return groupId == NO_GROUP ? null : groupsById[groupId];
     }
 
     /**
@@ -256,21 +520,35 @@ public final class Killer extends AbstractSudoku {
      * @param sum the {@link Group#sum sum} that the newly created {@link Group group} is supposed to have
      * @return a {@link GroupsUpdateResult GroupsUpdateResult} that provides information about the result of this
      * operation
+     * @throws IllegalArgumentException if one of the {@code cells} is outside of the grid
      * @see GroupsUpdateResult GroupsUpdateResult
      */
     public GroupsUpdateResult putCellsIntoNewGroup(final Set<Cell> cells, final int sum) {
 
-        final Group newGroup = new Group(copyOf(cells), sum);
-        FailureReason reason = reasonWhyGroupIsInvalid(newGroup);
+        if (!cells.stream().allMatch(this::isInGrid)) {
+            throw new IllegalArgumentException("All cells have to be inside of the grid!");
+        }
+
+        final CellSet newCells = new CellSet(gridSize, cells);
+        final Group newGroup = new Group(unmodifiableSet(newCells), sum);
+        final long cellsLow = getBitboard(cells, false), cellsHigh = getBitboard(cells, true);
+        FailureReason reason = cells.isEmpty()
+                ? FailureReason.GROUP_IS_EMPTY
+                : reasonWhyGroupIsInvalid(sum, cellsLow, cellsHigh);
         if (reason != null) {
             return newGroupsUpdateFailure(reason);
         }
 
-        final Set<Group> groups = cells.stream().map(groupsForCells::get).filter(Objects::nonNull).collect(toSet());
+        final Set<Group> groups = cells.stream()
+                .map(cell -> getGroupForCell(cell.row(), cell.column()))
+                .filter(Objects::nonNull)
+                .collect(toSet());
 
         for (final Group group : groups) {
             // check if old groups would be valid without cells
-            reason = reasonWhyGroupIsInvalidWithoutCells(group, cells);
+            final int groupId = getGroupId(group);
+            reason = reasonWhyGroupIsInvalid(group.sum,
+                    cellsOfGroupsLow[groupId] & ~cellsLow, cellsOfGroupsHigh[groupId] & ~cellsHigh);
             if (reason != null) {
                 return newGroupsUpdateFailure(reason);
             }
@@ -279,30 +557,17 @@ public final class Killer extends AbstractSudoku {
         // remove cells after checking if valid
         for (final Group group : groups) {
 
-            final Set<Cell> oldCells = group.cells;
-            final Set<Cell> updatedCells = oldCells.stream().filter(not(cells::contains)).collect(toSet());
+            final CellSet updatedCells = new CellSet(gridSize, group.cells);
+            updatedCells.removeAll(newCells);
 
-            if (updatedCells.isEmpty()) {
-                remove(group);
-            } else {
-                final Group updatedGroup = new Group(unmodifiableSet(updatedCells), group.sum);
-
-                // replace old group with newGroup
-                this.groups.remove(group);
-                this.groups.add(updatedGroup);
-                for (final Cell cell : updatedCells) {
-                    groupsForCells.put(cell, updatedGroup);
-                }
-
-                // remove group mappings for removed cells
-                oldCells.stream().filter(cells::contains).forEach(groupsForCells::remove);
+            // replace old group with a group without cells
+            remove(getGroupId(group));
+            if (!updatedCells.isEmpty()) {
+                add(new Group(unmodifiableSet(updatedCells), group.sum));
             }
         }
 
-        this.groups.add(newGroup);
-        for (final Cell cell : cells) {
-            groupsForCells.put(cell, newGroup);
-        }
+        add(newGroup);
 
         return newGroupsUpdateSuccess();
     }
@@ -316,8 +581,9 @@ public final class Killer extends AbstractSudoku {
      * @see GroupsUpdateResult GroupsUpdateResult
      */
     public GroupsUpdateResult removeGroup(final Group group) {
-        if (groups.contains(group)) {
-            remove(group);
+        final int groupId = getGroupId(group);
+        if (groupId != NO_GROUP) {
+            remove(groupId);
             return newGroupsUpdateSuccess();
         } else {
             return newGroupsUpdateFailure(FailureReason.GROUP_NOT_PART_OF_KILLER);
@@ -325,6 +591,194 @@ public final class Killer extends AbstractSudoku {
     }
 
 
+    @Override
+    DancingLinks toExactCoverProblem() {
+        return null; // sums of groups cannot be modelled as exact cover constraints
+    }
+
+    @Override
+    protected void prepareForSolve() {
+        super.prepareForSolve();
+        findRegionsWithKnownSums();
+    }
+
+    /*
+     * The cells of every row, column and sub-grid add up to Group.MAX_SUM. The sums of the groups that are completely
+     * inside of such a unit are therefore enough to know the sum of the remaining cells of the unit (the innies). The
+     * groups that are partly inside of the unit also add up to the sum of the innies and the sum of their cells
+     * outside of the unit (the outies). The innies always have distinct numbers, the outies only if they are in one
+     * unit. Only regions with distinct numbers are kept since the candidates are restricted with getCombinations().
+     */
+    private void findRegionsWithKnownSums() {
+        if (sumsOfRegions == null) {
+            sumsOfRegions = new int[2 * NUMBER_OF_UNITS];
+            cellCountsOfRegions = new int[2 * NUMBER_OF_UNITS];
+            cellsOfRegionsLow = new long[2 * NUMBER_OF_UNITS];
+            cellsOfRegionsHigh = new long[2 * NUMBER_OF_UNITS];
+            numbersInRegions = new long[2 * NUMBER_OF_UNITS];
+            regionOffsetsForCells = new int[getNumberOfCells() + 1];
+            regionIdsForCells = new int[2 * NUMBER_OF_UNITS * GRID_SIZE];
+        }
+        regionCount = 0;
+
+        for (int unit = 0; unit < NUMBER_OF_UNITS; unit++) {
+            final long unitLow = CELLS_OF_UNITS_LOW[unit], unitHigh = CELLS_OF_UNITS_HIGH[unit];
+            int sumOfGroupsInside = 0, sumOfGroupsPartlyInside = 0;
+            long inniesLow = 0L, inniesHigh = 0L, outiesLow = 0L, outiesHigh = 0L;
+
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                final long groupLow = cellsOfGroupsLow[groupId], groupHigh = cellsOfGroupsHigh[groupId];
+                final long insideLow = groupLow & unitLow, insideHigh = groupHigh & unitHigh;
+
+                if (insideLow == groupLow && insideHigh == groupHigh) {
+                    sumOfGroupsInside += groupsById[groupId].sum;
+                } else if ((insideLow | insideHigh) != 0L) {
+                    sumOfGroupsPartlyInside += groupsById[groupId].sum;
+                    inniesLow |= insideLow;
+                    inniesHigh |= insideHigh;
+                    outiesLow |= groupLow & ~unitLow;
+                    outiesHigh |= groupHigh & ~unitHigh;
+                }
+            }
+
+            // there are only outies if there are innies
+            if ((inniesLow | inniesHigh) != 0L) {
+                final int sumOfInnies = Group.MAX_SUM - sumOfGroupsInside;
+                addRegion(inniesLow, inniesHigh, sumOfInnies);
+                if (areInOneUnit(outiesLow, outiesHigh)) {
+                    addRegion(outiesLow, outiesHigh, sumOfGroupsPartlyInside - sumOfInnies);
+                }
+            }
+        }
+
+        // count the regions of every cell at the offset of the next cell and fill in the numbers of the regions
+        fill(regionOffsetsForCells, 0);
+        for (int regionId = 0; regionId < regionCount; regionId++) {
+            numbersInRegions[regionId] = 0L;
+            for (int word = 0; word < 2; word++) {
+                for (long cells = word == 0 ? cellsOfRegionsLow[regionId] : cellsOfRegionsHigh[regionId];
+                     cells != 0L; cells &= cells - 1) {
+                    final int cellIndex = word * Long.SIZE + Long.numberOfTrailingZeros(cells);
+                    regionOffsetsForCells[cellIndex + 1]++;
+                    if (grid[cellIndex] != EMPTY_CELL) {
+                        numbersInRegions[regionId] |= maskOf(grid[cellIndex]);
+                    }
+                }
+            }
+        }
+        for (int cellIndex = 0; cellIndex < getNumberOfCells(); cellIndex++) {
+            regionOffsetsForCells[cellIndex + 1] += regionOffsetsForCells[cellIndex];
+        }
+
+        // the offsets move to the end of the regions of each cell while inserting -> move them back afterwards
+        for (int regionId = 0; regionId < regionCount; regionId++) {
+            for (int word = 0; word < 2; word++) {
+                for (long cells = word == 0 ? cellsOfRegionsLow[regionId] : cellsOfRegionsHigh[regionId];
+                     cells != 0L; cells &= cells - 1) {
+                    final int cellIndex = word * Long.SIZE + Long.numberOfTrailingZeros(cells);
+                    regionIdsForCells[regionOffsetsForCells[cellIndex]++] = regionId;
+                }
+            }
+        }
+        System.arraycopy(regionOffsetsForCells, 0, regionOffsetsForCells, 1, getNumberOfCells());
+        regionOffsetsForCells[0] = 0;
+    }
+
+    private void addRegion(final long cellsLow, final long cellsHigh, final int sum) {
+        final int cellCount = Long.bitCount(cellsLow) + Long.bitCount(cellsHigh);
+        if (cellCount == GRID_SIZE && sum == Group.MAX_SUM) {
+            return; // whole unit, already covered by the candidates of AbstractSudoku
+        }
+        for (int regionId = 0; regionId < regionCount; regionId++) {
+            if (cellsOfRegionsLow[regionId] == cellsLow && cellsOfRegionsHigh[regionId] == cellsHigh) {
+                return; // same cells can't have another sum
+            }
+        }
+        final int regionId = regionCount++;
+        sumsOfRegions[regionId] = sum;
+        cellCountsOfRegions[regionId] = cellCount;
+        cellsOfRegionsLow[regionId] = cellsLow;
+        cellsOfRegionsHigh[regionId] = cellsHigh;
+    }
+
+    private static boolean areInOneUnit(final long cellsLow, final long cellsHigh) {
+        for (int unit = 0; unit < NUMBER_OF_UNITS; unit++) {
+            if ((cellsLow & ~CELLS_OF_UNITS_LOW[unit]) == 0L && (cellsHigh & ~CELLS_OF_UNITS_HIGH[unit]) == 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected long getCandidatesForSolve(final int row, final int column) {
+
+        long candidates = super.getCandidatesForSolve(row, column);
+        final int cellIndex = row * gridSize + column;
+        final int groupId = groupIdsForCells[cellIndex];
+
+        // no group / no candidates left -> group cannot restrict candidates any further
+        if (groupId == NO_GROUP || candidates == 0L) {
+            return candidates;
+        }
+
+        final Group group = groupsById[groupId];
+        candidates &= getNumbersToComplete(group.cells.size(), group.sum, numbersInGroups[groupId]);
+
+        for (int index = regionOffsetsForCells[cellIndex]; index < regionOffsetsForCells[cellIndex + 1]; index++) {
+            final int regionId = regionIdsForCells[index];
+            candidates &= getNumbersToComplete(cellCountsOfRegions[regionId], sumsOfRegions[regionId],
+                    numbersInRegions[regionId]);
+        }
+
+        return candidates;
+    }
+
+    // returns the numbers that can complete n distinct numbers that add up to sum when numbers are already used
+    private static long getNumbersToComplete(final int n, final int sum, final long numbers) {
+
+        // only numbers of combinations for the sum that contain all numbers that are already used can complete it
+        // (this also covers the last empty cell that has to reach the sum exactly)
+        long possibleNumbers = 0L;
+        for (final long combination : getCombinations(n, sum)) {
+            if ((combination & numbers) == numbers) {
+                possibleNumbers |= combination;
+            }
+        }
+
+        return possibleNumbers & ~numbers;
+    }
+
+    @Override
+    protected void placeForSolve(final int row, final int column, final int number) {
+        super.placeForSolve(row, column, number);
+        final int cellIndex = row * gridSize + column;
+        for (int index = regionOffsetsForCells[cellIndex]; index < regionOffsetsForCells[cellIndex + 1]; index++) {
+            numbersInRegions[regionIdsForCells[index]] |= maskOf(number);
+        }
+    }
+
+    @Override
+    protected void removeForSolve(final int row, final int column, final int number) {
+        super.removeForSolve(row, column, number);
+        final int cellIndex = row * gridSize + column;
+        for (int index = regionOffsetsForCells[cellIndex]; index < regionOffsetsForCells[cellIndex + 1]; index++) {
+            numbersInRegions[regionIdsForCells[index]] &= ~maskOf(number);
+        }
+    }
+
+
+    @Override
+    protected boolean hasConflicts(final int row, final int column) {
+        final int groupId = groupIdsForCells[row * gridSize + column];
+        return super.hasConflicts(row, column) || (groupId != NO_GROUP && groupHasConflicts(groupId));
+    }
+
+    @Override
+    protected boolean hasConflicts() {
+        return super.hasConflicts() || groupsWithConflicts > 0;
+    }
+
     @Override
     protected Set<Cell> getConflictingCells(final int row, final int column, final boolean getAll) {
 
@@ -333,54 +787,58 @@ public final class Killer extends AbstractSudoku {
             return conflicts;
         }
 
-        final Cell currentCell = new Cell(row, column);
-        final Group group = groupsForCells.get(currentCell);
+        final int groupId = groupIdsForCells[row * gridSize + column];
 
-        // no group / an empty group cannot have any more conflicts
-        if (group == null || group.cells.isEmpty()) {
+        // no group -> cannot have any more conflicts
+        if (groupId == NO_GROUP) {
             return conflicts;
         }
 
-        // occurrences[n] == true -> cell value n + 1 already occurred in this group
-        final boolean[] occurrences = new boolean[gridSize];
-        int sum = 0;
-        boolean hasEmptyCells = false;
+        final Group group = groupsById[groupId];
+        final boolean sumIsInvalid = groupHasInvalidSum(groupId);
 
-        // calculate sum and check for double occurrences
-        for (final Cell cell : group.cells) {
-            final int cellValue = grid[cell.row()][cell.column()];
+        // the state of the group tells whether there are conflicts, the cells only have to be searched if so
+        if (duplicatesInGroups[groupId] == 0 && !sumIsInvalid) {
+            return conflicts;
+        }
 
-            if (cellValue == EMPTY_CELL) {
-                hasEmptyCells = true;
+        if (duplicatesInGroups[groupId] > 0) {
 
-            } else {
-                sum += cellValue;
-
-                // cellValue already occurred in this group
-                if (occurrences[cellValue - 1]) {
-
-                    if (cell.row() == row && cell.column() == column) {
-                        // there is exactly one other cell with same number (other would have been rejected before)
-                        // -> find it with findFirst()
-                        conflicts.add(group.cells.stream()
-                                .filter(c -> (c.row() != row || c.column() != column)
-                                        && grid[c.row()][c.column()] == cellValue)
-                                .findFirst().orElseThrow());
-                    } else {
-                        conflicts.add(cell);
-                    }
+            // occurrences[n] == true -> cell value n + 1 already occurred in this group
+            final boolean[] occurrences = new boolean[gridSize];
 
-                    if (!getAll) {
-                        return conflicts;
-                    }
+            // check for double occurrences
+            for (final Cell cell : group.cells) {
+                final int cellValue = grid[cell.row() * gridSize + cell.column()];
 
-                } else {
-                    occurrences[cellValue - 1] = true;
+                if (cellValue != EMPTY_CELL) {
+
+                    // cellValue already occurred in this group
+                    if (occurrences[cellValue - 1]) {
+
+                        if (cell.row() == row && cell.column() == column) {
+                            // there is exactly one other cell with same number (other would have been rejected before)
+                            // -> find it with findFirst()
+                            conflicts.add(group.cells.stream()
+                                    .filter(c -> (c.row() != row || c.column() != column)
+                                            && grid[c.row() * gridSize + c.column()] == cellValue)
+                                    .findFirst().orElseThrow());
+                        } else {
+                            conflicts.add(cell);
+                        }
+
+                        if (!getAll) {
+                            return conflicts;
+                        }
+
+                    } else {
+                        occurrences[cellValue - 1] = true;
+                    }
                 }
             }
         }
 
-        if ((hasEmptyCells && sum >= group.sum) || (!hasEmptyCells && sum != group.sum)) {
+        if (sumIsInvalid) {
 
             if (!getAll) {
                 if (group.cells.size() > 1) {
@@ -395,7 +853,7 @@ public final class Killer extends AbstractSudoku {
 
             conflicts.addAll(group.cells);
             if (group.cells.size() > 1) {
-                conflicts.remove(currentCell); // don't include cell that is being checked
+                conflicts.remove(Cell.of(row, column)); // don't include cell that is being checked
             }
         }
 
@@ -411,44 +869,44 @@ public final class Killer extends AbstractSudoku {
     }
 
     /**
-     * Returns {@code false} if and only if {@link #grid} is a square with {@link #gridSize} {@code *} {@link #gridSize}
-     * cells, every cell is either {@link #EMPTY_CELL} or in the valid range from {@code 1} to {@link #gridSize}
-     * (both inclusive), every cell is part of exactly one {@link Group group}, no group is empty, all groups have at
-     * most {@link Group#MAX_CELLS Group#MAX_CELLS} cells, the {@link Group#sum sum} of each group is in the valid range
-     * from {@link #getMinSumForGroupWithNCells(int) getMinSumForGroupWithNCells()} to
+     * {@inheritDoc}
+     * <p>A Killer is additionally only valid if every cell is part of exactly one {@link Group group}, no group is
+     * empty, all groups have at most {@link Group#MAX_CELLS Group#MAX_CELLS} cells, the {@link Group#sum sum} of each
+     * group is in the valid range from {@link #getMinSumForGroupWithNCells(int) getMinSumForGroupWithNCells()} to
      * {@link #getMaxSumForGroupWithNCells(int) getMaxSumForGroupWithNCells()} (both inclusive), all cells in a group
-     * are connected, the total sum of all group sums is the same as {@link #TOTAL_SUM}, there are at least
-     * {@link #MIN_GROUP_AMOUNT} groups and there are no {@link #getConflictingCells(int, int, boolean) conflicts}.
+     * are connected, the total sum of all group sums is the same as {@link #TOTAL_SUM} and there are at least
+     * {@link #MIN_GROUP_AMOUNT} groups.</p>
      */
     @Override
     protected boolean isInvalid() {
 
-        if (groups.size() < MIN_GROUP_AMOUNT || super.isInvalid()) {
+        if (groupCount < MIN_GROUP_AMOUNT || super.isInvalid()) {
             return true; // not enough groups or grid is invalid
         }
 
-        // occurrences[row][column] == true -> cell in row and column is part of a group
-        final boolean[][] occurrences = new boolean[gridSize][gridSize];
+        // bitboard of all cells that are part of a group
+        long coveredLow = 0L, coveredHigh = 0L;
         int totalSum = 0;
 
-        // register occurrences and calculate totalSum
-        for (final Group group : groups) {
+        // register covered cells and calculate totalSum
+        for (int groupId = 0; groupId < groupCount; groupId++) {
+            final Group group = groupsById[groupId];
+            final long cellsLow = cellsOfGroupsLow[groupId], cellsHigh = cellsOfGroupsHigh[groupId];
 
             if (group.cells.isEmpty() // group is empty
                     || group.cells.size() > Group.MAX_CELLS // too many cells
                     || group.sum < getMinSumForGroupWithNCells(group.cells.size())
                     || group.sum > getMaxSumForGroupWithNCells(group.cells.size()) // sum is not in valid range
-                    || !allCellsAreConnected(group.cells)) { // cells are not connected
+                    || !allCellsAreConnected(cellsLow, cellsHigh)) { // cells are not connected
                 return true;
             }
 
-            totalSum += group.sum;
-            for (final Cell cell : group.cells) {
-                if (occurrences[cell.row()][cell.column()]) {
-                    return true; // cell twice in group or in two groups
-                }
-                occurrences[cell.row()][cell.column()] = true;
+            if ((coveredLow & cellsLow) != 0L || (coveredHigh & cellsHigh) != 0L) {
+                return true; // cell in two groups
             }
+            coveredLow |= cellsLow;
+            coveredHigh |= cellsHigh;
+            totalSum += group.sum;
         }
 
         if (totalSum != TOTAL_SUM) {
@@ -456,26 +914,13 @@ public final class Killer extends AbstractSudoku {
         }
 
         // check for every cell to be in a group
-        for (int row = 0; row < gridSize; row++) {
-            for (int column = 0; column < gridSize; column++) {
-                if (!occurrences[row][column]) {
-                    return true; // cell is in no group
-                }
-            }
-        }
-
-        return false; // no rule was violated -> valid
+        return coveredLow != ALL_CELLS_LOW || coveredHigh != ALL_CELLS_HIGH;
     }
 
 
     @Override
     protected boolean isEqualTo(final AbstractPuzzle other) {
-        return super.isEqualTo(other) && this.groups.equals(((Killer) other).groups);
-    }
-
-    @Override
-    public int hashCode() {
-        return hash(super.hashCode(), groups);
+        return super.isEqualTo(other) && this.getGroups().equals(((Killer) other).getGroups());
     }
 
     @Override
@@ -483,8 +928,8 @@ public final class Killer extends AbstractSudoku {
         return "Killer{" +
                 "subGridSize=" + subGridSize +
                 ", gridSize=" + gridSize +
-                ", grid=" + deepToString(grid) +
-                ", groups=" + groups +
+                ", grid=" + deepToString(getGrid()) +
+                ", groups=" + getGroups() +
                 '}';
     }
 }
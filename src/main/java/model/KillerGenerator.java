@@ -0,0 +1,343 @@
+package model;
+
+import model.AbstractPuzzle.Cell;
+import model.Killer.Group;
+
+import java.util.*;
+
+import static java.util.Collections.shuffle;
+
+/**
+ * Uninstantiable class with static methods to generate random unsolved {@link Killer Killers} and their solutions.
+ * <p>A random full grid is partitioned into connected {@link Group groups} (cages) without repeated numbers that grow
+ * to a random size of at most {@link Group#MAX_CELLS} cells, their sums are taken from the grid. The cages are then
+ * changed until the solution is unique, either by splitting cages (for Killers without givens) or by keeping only the
+ * givens that are needed (for Killers with givens). Finally, cages with one cell are merged into a small neighbouring
+ * cage wherever the solution stays unique.</p>
+ * <p>Uniqueness is checked by searching for two solutions of the Killer. If there is a second one, the cells where the
+ * solutions differ from the grid show which cages to split (or which merges to undo).</p>
+ *
+ * @author Luca Kellermann
+ */
+public final class KillerGenerator {
+
+    /**
+     * A {@link Killer} and its solution in the form of an ordered nominal Pair {@code (killer, solution)}.
+     */
+    public final record KillerAndSolution(Killer killer, Killer solution) {}
+
+
+    // cages stop growing at a random size in this range (or earlier if no neighbour fits)
+    private static final int MIN_TARGET_CAGE_SIZE = 2;
+    private static final int MAX_TARGET_CAGE_SIZE = 5;
+
+    // cages with one cell are only merged into cages that stay at most this big
+    private static final int MAX_MERGED_CAGE_SIZE = 3;
+
+    private static final int NO_CAGE = -1;
+    private static final int NO_CELL = -1;
+
+
+    private final Random random;
+
+    // the solution and the cage id of each cell, indexed by row * GRID_SIZE + column
+    private final int[] grid = new int[Killer.GRID_SIZE * Killer.GRID_SIZE];
+    private final int[] cageIds = new int[grid.length];
+    private int nextCageId;
+
+    // the givens of the Killer, all cells are given in the beginning
+    private final boolean[] isGiven = new boolean[grid.length];
+
+
+    private KillerGenerator(final Random random) {
+        this.random = random;
+        final Sudoku filledSudoku = new Sudoku(Killer.SUB_GRID_SIZE, random);
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            grid[cellIndex] = filledSudoku.getCell(cellIndex / Killer.GRID_SIZE, cellIndex % Killer.GRID_SIZE);
+        }
+        Arrays.fill(isGiven, true);
+        growCages();
+    }
+
+
+    /**
+     * Generates a Killer without givens and its solution.
+     */
+    public static KillerAndSolution generateKillerAndSolution() {
+        return new KillerGenerator(new Random()).generate(false);
+    }
+
+    /**
+     * Generates a Killer without givens and its solution from {@code seed}.
+     * <p>The same {@code seed} always leads to the same Killer with this version of the generator and the solver.</p>
+     */
+    public static KillerAndSolution generateKillerAndSolution(final long seed) {
+        return generateKillerAndSolution(seed, false);
+    }
+
+    /**
+     * Generates a Killer and its solution from {@code seed}.
+     * <p>If {@code withGivens} is {@code false}, all givens are removed and the cages are split until the solution is
+     * unique. If {@code withGivens} is {@code true}, the cages are not split and every given is removed that is not
+     * needed for a unique solution, which leads to bigger cages and a few givens.</p>
+     * <p>The same arguments always lead to the same Killer with this version of the generator and the solver.</p>
+     */
+    public static KillerAndSolution generateKillerAndSolution(final long seed, final boolean withGivens) {
+        return new KillerGenerator(new Random(seed)).generate(withGivens);
+    }
+
+    private KillerAndSolution generate(final boolean withGivens) {
+        if (withGivens) {
+            removeGivens();
+        } else {
+            Arrays.fill(isGiven, false);
+            splitCagesUntilUnique();
+        }
+        mergeSingleCellCages();
+
+        final Set<Group> groups = getGroups();
+        final int[][] killerGrid = new int[Killer.GRID_SIZE][Killer.GRID_SIZE];
+        final int[][] solutionGrid = new int[Killer.GRID_SIZE][Killer.GRID_SIZE];
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            final int row = cellIndex / Killer.GRID_SIZE, column = cellIndex % Killer.GRID_SIZE;
+            killerGrid[row][column] = isGiven[cellIndex] ? grid[cellIndex] : Killer.EMPTY_CELL;
+            solutionGrid[row][column] = grid[cellIndex];
+        }
+        return new KillerAndSolution(new Killer(killerGrid, groups), new Killer(solutionGrid, groups));
+    }
+
+
+    private void growCages() {
+        Arrays.fill(cageIds, NO_CAGE);
+        final List<Integer> startCells = getCellIndices();
+        shuffle(startCells, random);
+
+        final List<Integer> cage = new ArrayList<>(Group.MAX_CELLS);
+        final List<Integer> fittingNeighbours = new ArrayList<>();
+        for (final int startCell : startCells) {
+            if (cageIds[startCell] != NO_CAGE) {
+                continue;
+            }
+            final int cageId = nextCageId++;
+            final int targetSize = MIN_TARGET_CAGE_SIZE
+                    + random.nextInt(MAX_TARGET_CAGE_SIZE - MIN_TARGET_CAGE_SIZE + 1);
+            cage.clear();
+            cage.add(startCell);
+            cageIds[startCell] = cageId;
+            int numbers = 1 << grid[startCell];
+
+            // add random free neighbours with numbers that are not in the cage yet
+            while (cage.size() < Math.min(targetSize, Group.MAX_CELLS)) {
+                fittingNeighbours.clear();
+                for (final int cellIndex : cage) {
+                    for (final int neighbour : getNeighbours(cellIndex)) {
+                        if (cageIds[neighbour] == NO_CAGE && (numbers & (1 << grid[neighbour])) == 0
+                                && !fittingNeighbours.contains(neighbour)) {
+                            fittingNeighbours.add(neighbour);
+                        }
+                    }
+                }
+                if (fittingNeighbours.isEmpty()) {
+                    break;
+                }
+                final int neighbour = fittingNeighbours.get(random.nextInt(fittingNeighbours.size()));
+                cage.add(neighbour);
+                cageIds[neighbour] = cageId;
+                numbers |= 1 << grid[neighbour];
+            }
+        }
+    }
+
+    private void splitCagesUntilUnique() {
+        int differingCell;
+        while ((differingCell = findDifferingCell()) != NO_CELL) {
+            splitCage(differingCell);
+        }
+    }
+
+    // splits the cage of cellIndex into a connected half with cellIndex and the connected parts of the rest
+    private void splitCage(final int cellIndex) {
+        final int cageId = cageIds[cellIndex];
+        final int newCageId = nextCageId++;
+        final int halfSize = Math.max(1, getCageSize(cageId) / 2);
+
+        // breadth-first from cellIndex
+        final Deque<Integer> queue = new ArrayDeque<>(List.of(cellIndex));
+        int movedCount = 0;
+        while (!queue.isEmpty() && movedCount < halfSize) {
+            final int current = queue.poll();
+            if (cageIds[current] == cageId) {
+                cageIds[current] = newCageId;
+                movedCount++;
+                for (final int neighbour : getNeighbours(current)) {
+                    if (cageIds[neighbour] == cageId) {
+                        queue.add(neighbour);
+                    }
+                }
+            }
+        }
+
+        // the rest might not be connected anymore
+        for (int otherCell = 0; otherCell < grid.length; otherCell++) {
+            if (cageIds[otherCell] == cageId) {
+                relabelConnectedCells(otherCell, cageId, nextCageId++);
+            }
+        }
+    }
+
+    private void relabelConnectedCells(final int cellIndex, final int oldCageId, final int newCageId) {
+        cageIds[cellIndex] = newCageId;
+        for (final int neighbour : getNeighbours(cellIndex)) {
+            if (cageIds[neighbour] == oldCageId) {
+                relabelConnectedCells(neighbour, oldCageId, newCageId);
+            }
+        }
+    }
+
+    // merges every cage with one cell into a random neighbouring cage and then undoes merges until the solution is
+    // unique again: every other solution has a different number in one of the merged cells (otherwise it would be a
+    // solution before merging), so one of them is undone at a time, the merged cage is not allowed to be bigger than
+    // MAX_MERGED_CAGE_SIZE so that the uniqueness checks stay fast
+    private void mergeSingleCellCages() {
+        final List<Integer> cells = getCellIndices();
+        shuffle(cells, random);
+        final Map<Integer, Integer> oldCageIds = new LinkedHashMap<>(); // of the merged cells
+        final List<Integer> neighbourCageIds = new ArrayList<>(4);
+        for (final int cellIndex : cells) {
+            if (getCageSize(cageIds[cellIndex]) != 1) {
+                continue;
+            }
+
+            // merged cells are not used for connecting, so undoing a merge never splits a cage
+            neighbourCageIds.clear();
+            for (final int neighbour : getNeighbours(cellIndex)) {
+                final int neighbourCageId = cageIds[neighbour];
+                if (!oldCageIds.containsKey(neighbour) && !neighbourCageIds.contains(neighbourCageId)
+                        && getCageSize(neighbourCageId) < MAX_MERGED_CAGE_SIZE
+                        && !containsNumber(neighbourCageId, grid[cellIndex])) {
+                    neighbourCageIds.add(neighbourCageId);
+                }
+            }
+            if (!neighbourCageIds.isEmpty()) {
+                oldCageIds.put(cellIndex, cageIds[cellIndex]);
+                cageIds[cellIndex] = neighbourCageIds.get(random.nextInt(neighbourCageIds.size()));
+            }
+        }
+
+        List<Integer> differingCells;
+        while (!(differingCells = findDifferingCells()).isEmpty()) {
+            differingCells.retainAll(oldCageIds.keySet());
+            final int cellIndex = differingCells.get(random.nextInt(differingCells.size()));
+            cageIds[cellIndex] = oldCageIds.remove(cellIndex);
+        }
+    }
+
+    // removes givens (in random order) if the solution stays unique
+    private void removeGivens() {
+        final List<Integer> cells = getCellIndices();
+        shuffle(cells, random);
+        for (final int cellIndex : cells) {
+            isGiven[cellIndex] = false;
+            if (findDifferingCell() != NO_CELL) {
+                isGiven[cellIndex] = true;
+            }
+        }
+    }
+
+
+    // returns a random cell where a solution differs from grid or NO_CELL if grid is the unique solution
+    private int findDifferingCell() {
+        final List<Integer> differingCells = findDifferingCells();
+        return differingCells.isEmpty() ? NO_CELL : differingCells.get(random.nextInt(differingCells.size()));
+    }
+
+    // returns the cells where a solution differs from grid, there are none if grid is the unique solution
+    private List<Integer> findDifferingCells() {
+        final int[][] solutions = new Killer(getGivens(), getGroups()).findUpToTwoSolutions();
+        if (solutions.length == 0) {
+            throw new IllegalStateException("Killer has no solution!"); // grid is always a solution
+        }
+
+        final List<Integer> differingCells = new ArrayList<>();
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            for (final int[] solution : solutions) {
+                if (solution[cellIndex] != grid[cellIndex]) {
+                    differingCells.add(cellIndex);
+                    break;
+                }
+            }
+        }
+        return differingCells;
+    }
+
+    private int[][] getGivens() {
+        final int[][] givens = new int[Killer.GRID_SIZE][Killer.GRID_SIZE];
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            if (isGiven[cellIndex]) {
+                givens[cellIndex / Killer.GRID_SIZE][cellIndex % Killer.GRID_SIZE] = grid[cellIndex];
+            }
+        }
+        return givens;
+    }
+
+    private Set<Group> getGroups() {
+        final Map<Integer, Set<Cell>> cellsOfCages = new LinkedHashMap<>();
+        final Map<Integer, Integer> sumsOfCages = new HashMap<>();
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            cellsOfCages.computeIfAbsent(cageIds[cellIndex], cageId -> new CellSet(Killer.GRID_SIZE))
+                    .add(Cell.of(cellIndex / Killer.GRID_SIZE, cellIndex % Killer.GRID_SIZE));
+            sumsOfCages.merge(cageIds[cellIndex], grid[cellIndex], Integer::sum);
+        }
+
+        final Set<Group> groups = new HashSet<>();
+        cellsOfCages.forEach((cageId, cells) ->
+                groups.add(new Group(Collections.unmodifiableSet(cells), sumsOfCages.get(cageId))));
+        return groups;
+    }
+
+    private int getCageSize(final int cageId) {
+        int size = 0;
+        for (final int otherCageId : cageIds) {
+            if (otherCageId == cageId) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private boolean containsNumber(final int cageId, final int number) {
+        for (int cellIndex = 0; cellIndex < grid.length; cellIndex++) {
+            if (cageIds[cellIndex] == cageId && grid[cellIndex] == number) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Integer> getCellIndices() {
+        final List<Integer> cellIndices = new ArrayList<>(Killer.GRID_SIZE * Killer.GRID_SIZE);
+        for (int cellIndex = 0; cellIndex < Killer.GRID_SIZE * Killer.GRID_SIZE; cellIndex++) {
+            cellIndices.add(cellIndex);
+        }
+        return cellIndices;
+    }
+
+    // the cells above, below, left and right of cellIndex that are inside of the grid
+    private static List<Integer> getNeighbours(final int cellIndex) {
+        final int row = cellIndex / Killer.GRID_SIZE, column = cellIndex % Killer.GRID_SIZE;
+        final List<Integer> neighbours = new ArrayList<>(4);
+        if (row > 0) {
+            neighbours.add(cellIndex - Killer.GRID_SIZE);
+        }
+        if (row < Killer.GRID_SIZE - 1) {
+            neighbours.add(cellIndex + Killer.GRID_SIZE);
+        }
+        if (column > 0) {
+            neighbours.add(cellIndex - 1);
+        }
+        if (column < Killer.GRID_SIZE - 1) {
+            neighbours.add(cellIndex + 1);
+        }
+        return neighbours;
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import model.AbstractPuzzle.SolveResult;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+import static util.Checks.requirePositive;
+
+/**
+ * Bounded cache of the {@link SolveResult results} and solutions of solved {@link AbstractPuzzle puzzles} that makes
+ * solving the same state again instant.
+ * <p>Entries are looked up by the {@link AbstractPuzzle#getStateHash() state hash} and then compared with
+ * {@link AbstractPuzzle#equals(Object) equals()}, so a hash collision only leads to solving again. If the cache is
+ * full, the least recently used entry is removed. All methods are thread-safe.</p>
+ *
+ * @author Luca Kellermann
+ */
+public final class SolveCache {
+
+    // state of the puzzle before solving, the result of solving it and the cell values afterwards (null if unchanged)
+    private static final record CachedSolve(AbstractPuzzle puzzle, SolveResult result, int[] solution) {}
+
+
+    private final int capacity;
+    private final Map<Long, CachedSolve> entries; // guarded by this, in access order
+
+
+    /**
+     * Creates an empty SolveCache that keeps at most {@code capacity} results.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public SolveCache(final int capacity) {
+        this.capacity = requirePositive(capacity, "capacity has to be positive!");
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, CachedSolve> eldest) {
+                return size() > SolveCache.this.capacity;
+            }
+        };
+    }
+
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+
+    /**
+     * Does the same as {@link AbstractPuzzle#solve(Duration) puzzle.solve(timeout)}, but returns the cached result
+     * instead of solving again if a puzzle in the same state was solved with this cache before.
+     * <p>{@link SolveResult#TIMED_OUT TIMED_OUT} and {@link SolveResult#CANCELLED CANCELLED} are not cached. The
+     * {@link AbstractPuzzle#getLastSolveStatistics() statistics} of {@code puzzle} are only updated if it was solved.
+     * </p>
+     *
+     * @throws NullPointerException if {@code puzzle} or {@code timeout} is {@code null}
+     */
+    public SolveResult solve(final AbstractPuzzle puzzle, final Duration timeout) {
+        requireNonNull(timeout);
+        final long stateHash = puzzle.getStateHash();
+
+        final CachedSolve cachedSolve;
+        synchronized (this) {
+            cachedSolve = entries.get(stateHash);
+        }
+        if (cachedSolve != null && cachedSolve.puzzle.equals(puzzle)) {
+            if (cachedSolve.solution != null) {
+                puzzle.applySolution(cachedSolve.solution);
+            }
+            return cachedSolve.result;
+        }
+
+        // solving is done outside of the lock, so the same state might be solved by two threads at the same time
+        final AbstractPuzzle unsolvedPuzzle = puzzle.getCopy();
+        final SolveResult result = puzzle.solve(timeout);
+        if (result != SolveResult.TIMED_OUT && result != SolveResult.CANCELLED) {
+            final int[] solution = result == SolveResult.ONE_SOLUTION || result == SolveResult.MULTIPLE_SOLUTIONS
+                    ? getCellValues(puzzle)
+                    : null;
+            synchronized (this) {
+                entries.put(stateHash, new CachedSolve(unsolvedPuzzle, result, solution));
+            }
+        }
+        return result;
+    }
+
+    private static int[] getCellValues(final AbstractPuzzle puzzle) {
+        final int[] values = new int[puzzle.getNumberOfCells()];
+        for (int cellIndex = 0; cellIndex < values.length; cellIndex++) {
+            values[cellIndex] = puzzle.grid[cellIndex];
+        }
+        return values;
+    }
+}
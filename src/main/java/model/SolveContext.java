@@ -0,0 +1,134 @@
+package model;
+
+import model.AbstractPuzzle.SolveStatistics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of a search for solutions of an {@link AbstractPuzzle} that can be shared between all threads searching in
+ * different parts of the search tree.
+ * <p>The search stops as soon as the solution limit is reached. The first solution that is found (which is not
+ * necessarily the first solution in the search order when multiple threads are searching) is kept together with its
+ * {@link SolveStatistics SolveStatistics}. Backtracking also keeps the second solution.</p>
+ * <p>A context that was created with a timeout also stops when the timeout has elapsed or when the thread checking
+ * {@link #isStopped()} is interrupted.</p>
+ *
+ * @author Luca Kellermann
+ */
+final class SolveContext {
+
+    private final int solutionLimit;
+    private final AtomicInteger solutionCount = new AtomicInteger();
+    private volatile boolean stopped;
+
+    // only used if isCancellable
+    private final boolean isCancellable;
+    private final long startTime; // System.nanoTime()
+    private final long timeoutInNanos;
+    private volatile boolean timedOut;
+    private volatile boolean cancelled;
+
+    // guarded by this
+    private int[] firstSolution;
+    private SolveStatistics firstSolutionStatistics;
+    private int[] secondSolution;
+
+
+    SolveContext(final int solutionLimit) {
+        this.solutionLimit = solutionLimit;
+        stopped = solutionLimit <= 0;
+        isCancellable = false;
+        startTime = 0L;
+        timeoutInNanos = Long.MAX_VALUE;
+    }
+
+    SolveContext(final int solutionLimit, final Duration timeout) {
+        this.solutionLimit = solutionLimit;
+        stopped = solutionLimit <= 0;
+        isCancellable = true;
+        startTime = System.nanoTime();
+        // Duration.toNanos() would overflow for timeouts longer than about 292 years
+        timeoutInNanos = timeout.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : timeout.toNanos();
+    }
+
+
+    /**
+     * Returns whether all threads should stop searching.
+     */
+    boolean isStopped() {
+        if (!stopped && isCancellable) {
+            if (Thread.currentThread().isInterrupted()) {
+                cancelled = true;
+                stopped = true;
+            } else if (System.nanoTime() - startTime >= timeoutInNanos) {
+                timedOut = true;
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Returns whether the search was stopped by the timeout before the solution limit was reached.
+     */
+    boolean isTimedOut() {
+        return timedOut && solutionCount.get() < solutionLimit;
+    }
+
+    /**
+     * Returns whether the search was stopped by an interrupt before the solution limit was reached.
+     */
+    boolean isCancelled() {
+        return cancelled && solutionCount.get() < solutionLimit;
+    }
+
+    /**
+     * Registers a new solution and stops the search if the solution limit is reached.
+     *
+     * @return the number of this solution, {@code 1} if it was the first one (the caller then has to call
+     * {@link #setFirstSolution(int[], SolveStatistics) setFirstSolution()})
+     */
+    int addSolution() {
+        final int count = solutionCount.incrementAndGet();
+        if (count >= solutionLimit) {
+            stopped = true;
+        }
+        return count;
+    }
+
+    synchronized void setFirstSolution(final int[] solution, final SolveStatistics statistics) {
+        firstSolution = solution;
+        firstSolutionStatistics = statistics;
+    }
+
+    synchronized void setSecondSolution(final int[] solution) {
+        secondSolution = solution;
+    }
+
+    /**
+     * Returns the number of solutions that were found (at most the solution limit).
+     */
+    int getSolutionCount() {
+        return Math.min(solutionCount.get(), solutionLimit);
+    }
+
+    /**
+     * Returns the first solution indexed by {@code row * gridSize + column} or {@code null} if no solution was found.
+     */
+    synchronized int[] getFirstSolution() {
+        return firstSolution;
+    }
+
+    synchronized SolveStatistics getFirstSolutionStatistics() {
+        return firstSolutionStatistics;
+    }
+
+    /**
+     * Returns the second solution indexed by {@code row * gridSize + column} or {@code null} if it was not found or
+     * not kept.
+     */
+    synchronized int[] getSecondSolution() {
+        return secondSolution;
+    }
+}
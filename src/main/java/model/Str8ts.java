@@ -6,7 +6,6 @@ import static java.util.Arrays.*;
 import static java.util.Objects.requireNonNull;
 import static model.Str8ts.Color.BLACK;
 import static model.Str8ts.Color.WHITE;
-import static util.Arrays.deepCopyOf;
 import static util.Arrays.twoLevelCopyOf;
 
 /**
@@ -47,37 +46,81 @@ public final class Str8ts extends AbstractPuzzle {
     public static final int GRID_SIZE = 9;
 
 
+    private static final int NO_COMPARTMENT = -1;
+
+
     private final Color[][] colors;
 
+    // Compartments are the maximal runs of white cells in a row or column, every white cell is part of one horizontal
+    // and one vertical compartment. They have ids from 0 to compartmentCount - 1 and are rebuilt when a color changes.
+    private int compartmentCount;
+    private final int[] horizontalCompartmentIdsForCells = new int[getNumberOfCells()]; // row * gridSize + column
+    private final int[] verticalCompartmentIdsForCells = new int[getNumberOfCells()];
+    private final int[] startsOfCompartments = new int[2 * getNumberOfCells()]; // cell index of the first cell
+    private final int[] endsOfCompartments = new int[2 * getNumberOfCells()]; // cell index of the last cell
+    private final int[] lengthsOfCompartments = new int[2 * getNumberOfCells()];
+    // lines are all rows (0 to gridSize - 1) followed by all columns, the compartments of a line have the ids from
+    // compartmentOffsetsForLines[line] to compartmentOffsetsForLines[line + 1] - 1
+    private final int[] linesOfCompartments = new int[2 * getNumberOfCells()];
+    private final int[] compartmentOffsetsForLines = new int[2 * gridSize + 1];
+
+    // state of the filled cells of each compartment that is updated on every cell change, indexed by compartment id
+    private final int[] filledCellsOfCompartments = new int[2 * getNumberOfCells()];
+    private final long[] numbersInCompartments = new long[2 * getNumberOfCells()]; // see maskOf()
+    // how often each number is in each compartment (setCell() can lead to duplicates for a short time), indexed by
+    // compartmentId * (gridSize + 1) + number
+    private final int[] numberCountsInCompartments = new int[2 * getNumberOfCells() * (gridSize + 1)];
+    private int compartmentsWithBrokenStraights; // see hasBrokenStraight()
+    private int whiteCellCount;
+    private int filledWhiteCellCount;
+
+    // bitmasks of the numbers in the black cells of each line while solving (black cells are not filled by solving)
+    private final long[] numbersInBlackCellsOfLines = new long[2 * gridSize];
+
 
     /**
      * Creates an empty Str8ts with {@link #GRID_SIZE} for its {@link #getGridSize() gridSize}.
      * The {@link Color color} of every cell is set to {@link Color#WHITE white}.
      */
     public Str8ts() {
-        super(new int[GRID_SIZE][GRID_SIZE]);
-        for (final int[] row : grid) {
-            fill(row, EMPTY_CELL);
-        }
+        super(GRID_SIZE);
         colors = new Color[gridSize][gridSize];
         for (final Color[] row : colors) {
             fill(row, WHITE);
         }
+        buildCompartments();
     }
 
     // package-private constructor for tests
     Str8ts(final int[][] grid, final Color[][] colors) {
-        super(deepCopyOf(grid));
+        super(grid);
         this.colors = twoLevelCopyOf(colors);
-        if (gridSize != GRID_SIZE || isInvalid()) {
+        if (gridSize != GRID_SIZE || hasInvalidColors()) {
             throw new IllegalArgumentException("Input Str8ts is not valid!");
         }
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                if (colors[row][column] == BLACK) {
+                    toggleStateHashKey(getBlackCellKey(row, column));
+                }
+            }
+        }
+        buildCompartments();
+        if (isInvalid()) {
+            throw new IllegalArgumentException("Input Str8ts is not valid!");
+        }
+    }
+
+    private Str8ts(final Str8ts other) {
+        super(other);
+        colors = twoLevelCopyOf(other.colors);
+        buildCompartments();
     }
 
 
     @Override
     protected Str8ts getCopy() {
-        return new Str8ts(grid, colors);
+        return new Str8ts(this);
     }
 
 
@@ -112,126 +155,291 @@ public final class Str8ts extends AbstractPuzzle {
         return switch (color) {
             case WHITE -> {
                 colors[row][column] = WHITE;
+                buildCompartments();
                 if (getConflictingCells(row, column, false).isEmpty()) {
+                    toggleStateHashKey(getBlackCellKey(row, column));
                     yield true;
                 } else {
                     colors[row][column] = BLACK;
+                    buildCompartments();
                     yield false;
                 }
             }
             case BLACK -> {
                 // black is always ok
                 colors[row][column] = BLACK;
+                buildCompartments();
+                toggleStateHashKey(getBlackCellKey(row, column));
                 yield true;
             }
         };
     }
 
+    // key of a black cell for the state hash (white cells have no key)
+    private long getBlackCellKey(final int row, final int column) {
+        return getStateHashKey(-1L - (row * gridSize + column)); // negative indices are free for subclasses
+    }
 
-    @Override
-    protected Cell getNextEmptyCellForSolve(int startRow, int startColumn, final boolean inclusive) {
 
-        Cell cell = super.getNextEmptyCellForSolve(startRow, startColumn, inclusive);
+    private void buildCompartments() {
+        compartmentCount = 0;
+        fill(horizontalCompartmentIdsForCells, NO_COMPARTMENT);
+        fill(verticalCompartmentIdsForCells, NO_COMPARTMENT);
+        fill(filledCellsOfCompartments, 0);
+        fill(numbersInCompartments, 0L);
+        fill(numberCountsInCompartments, 0);
+        whiteCellCount = 0;
+        filledWhiteCellCount = 0;
+
+        for (int line = 0; line < 2 * gridSize; line++) {
+            compartmentOffsetsForLines[line] = compartmentCount;
+            buildCompartmentsInLine(line);
+        }
+        compartmentOffsetsForLines[2 * gridSize] = compartmentCount;
 
-        // continuously get the next empty cell until its color is white (black cells must not be filled)
-        while (cell != null) {
-            startRow = cell.row();
-            startColumn = cell.column();
-            if (colors[startRow][startColumn] == WHITE) {
-                return cell; // found a white empty cell
+        compartmentsWithBrokenStraights = 0;
+        for (int compartmentId = 0; compartmentId < compartmentCount; compartmentId++) {
+            if (hasBrokenStraight(compartmentId)) {
+                compartmentsWithBrokenStraights++;
+            }
+        }
+    }
+
+    private void buildCompartmentsInLine(final int line) {
+        final boolean horizontal = line < gridSize;
+        final int[] compartmentIdsForCells = horizontal
+                ? horizontalCompartmentIdsForCells
+                : verticalCompartmentIdsForCells;
+        int compartmentId = NO_COMPARTMENT;
+
+        for (int index = 0; index < gridSize; index++) {
+            final int row = horizontal ? line : index, column = horizontal ? index : line - gridSize;
+            final int cellIndex = row * gridSize + column;
+
+            if (colors[row][column] != WHITE) {
+                compartmentId = NO_COMPARTMENT; // black cell ends the compartment
+                continue;
+            }
+
+            // white cell after a black cell or the edge of the grid starts a new compartment
+            if (compartmentId == NO_COMPARTMENT) {
+                compartmentId = compartmentCount++;
+                startsOfCompartments[compartmentId] = cellIndex;
+                lengthsOfCompartments[compartmentId] = 0;
+                linesOfCompartments[compartmentId] = line;
+            }
+            endsOfCompartments[compartmentId] = cellIndex;
+            lengthsOfCompartments[compartmentId]++;
+            compartmentIdsForCells[cellIndex] = compartmentId;
+            addToCompartment(compartmentId, grid[cellIndex]);
+            if (horizontal) {
+                whiteCellCount++;
+                if (grid[cellIndex] != EMPTY_CELL) {
+                    filledWhiteCellCount++;
+                }
             }
-            cell = super.getNextEmptyCellForSolve(startRow, startColumn, false);
         }
+    }
 
-        return null; // reached end and did not find an empty white cell
+    private void addToCompartment(final int compartmentId, final int value) {
+        if (value != EMPTY_CELL) {
+            filledCellsOfCompartments[compartmentId]++;
+            if (numberCountsInCompartments[compartmentId * (gridSize + 1) + value]++ == 0) {
+                numbersInCompartments[compartmentId] |= maskOf(value);
+            }
+        }
     }
 
+    private void removeFromCompartment(final int compartmentId, final int value) {
+        if (value != EMPTY_CELL) {
+            filledCellsOfCompartments[compartmentId]--;
+            if (--numberCountsInCompartments[compartmentId * (gridSize + 1) + value] == 0) {
+                numbersInCompartments[compartmentId] &= ~maskOf(value);
+            }
+        }
+    }
 
     @Override
-    protected Set<Cell> getConflictingCells(final int row, final int column, final boolean getAll) {
+    protected void cellChanged(final int row, final int column, final int previousValue, final int value) {
+        super.cellChanged(row, column, previousValue, value);
+        final int cellIndex = row * gridSize + column;
+        if (horizontalCompartmentIdsForCells[cellIndex] != NO_COMPARTMENT) {
+            // white cells are part of a horizontal and a vertical compartment
+            updateCompartment(horizontalCompartmentIdsForCells[cellIndex], previousValue, value);
+            updateCompartment(verticalCompartmentIdsForCells[cellIndex], previousValue, value);
+            if ((previousValue == EMPTY_CELL) != (value == EMPTY_CELL)) {
+                filledWhiteCellCount += value == EMPTY_CELL ? -1 : 1;
+            }
+        }
+    }
 
-        final Set<Cell> conflicts = super.getConflictingCells(row, column, getAll);
-        if ((!getAll && !conflicts.isEmpty()) || colors[row][column] == BLACK) {
-            // black cells don't have to be in a straight so there cannot exist any further conflicts
-            return conflicts;
+    private void updateCompartment(final int compartmentId, final int previousValue, final int value) {
+        final boolean hadBrokenStraight = hasBrokenStraight(compartmentId);
+        removeFromCompartment(compartmentId, previousValue);
+        addToCompartment(compartmentId, value);
+        if (hadBrokenStraight != hasBrokenStraight(compartmentId)) {
+            compartmentsWithBrokenStraights += hadBrokenStraight ? -1 : 1;
         }
+    }
 
-        // find limits of horizontal straight and add its conflicts to the set of conflicts
-        final int straightRowStartInclusive = getLastWhiteIndex(row, column, false, true);
-        final int straightRowEndInclusive = getLastWhiteIndex(row, column, true, true);
-        addStraightConflictsTo(conflicts, straightRowStartInclusive, straightRowEndInclusive, row, column, true, getAll);
+    // a compartment has a broken straight if all of its cells are filled and the numbers have gaps
+    private boolean hasBrokenStraight(final int compartmentId) {
+        final int length = lengthsOfCompartments[compartmentId];
 
-        if (!getAll && !conflicts.isEmpty()) {
-            return conflicts;
+        // only one cell -> always a straight, empty cells -> straight can not be evaluated yet
+        if (length == 1 || filledCellsOfCompartments[compartmentId] < length) {
+            return false;
         }
 
-        // find limits of vertical straight and add its conflicts to the set of conflicts
-        final int straightColumnStartInclusive = getLastWhiteIndex(row, column, false, false);
-        final int straightColumnEndInclusive = getLastWhiteIndex(row, column, true, false);
-        addStraightConflictsTo(conflicts, straightColumnStartInclusive, straightColumnEndInclusive, column, row, false, getAll);
+        // the numbers are a straight if they have no gaps (shifted to the lowest bit they are a power of two minus 1)
+        final long numbers = numbersInCompartments[compartmentId] >>> Long.numberOfTrailingZeros(
+                numbersInCompartments[compartmentId]);
+        return (numbers & (numbers + 1)) != 0L;
+    }
 
-        return conflicts;
+
+    @Override
+    protected boolean isCellToFillForSolve(final int row, final int column) {
+        // black cells must not be filled
+        return super.isCellToFillForSolve(row, column) && colors[row][column] == WHITE;
+    }
+
+
+    @Override
+    protected void prepareForSolve() {
+        super.prepareForSolve();
+        fill(numbersInBlackCellsOfLines, 0L);
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                final int number = grid[row * gridSize + column];
+                if (colors[row][column] == BLACK && number != EMPTY_CELL) {
+                    numbersInBlackCellsOfLines[row] |= maskOf(number);
+                    numbersInBlackCellsOfLines[gridSize + column] |= maskOf(number);
+                }
+            }
+        }
     }
 
-    private int getLastWhiteIndex(final int startRow, final int startColumn, final boolean increment,
-                                  final boolean inRow) {
-        int result = inRow ? startRow : startColumn;
+    @Override
+    protected long getCandidatesForSolve(final int row, final int column) {
 
-        while (increment ? ++result < gridSize : --result >= 0) {
-            if (colors[inRow ? result : startRow][inRow ? startColumn : result] != WHITE) break;
+        final long candidates = super.getCandidatesForSolve(row, column);
+        final int cellIndex = row * gridSize + column;
+        if (candidates == 0L || horizontalCompartmentIdsForCells[cellIndex] == NO_COMPARTMENT) {
+            return candidates;
         }
 
-        return increment ? result - 1 : result + 1; // undo last inc-/decrement from while loop condition
+        // only keep numbers that still allow a horizontal and a vertical straight
+        return candidates
+                & getNumbersThatFitIntoStraight(horizontalCompartmentIdsForCells[cellIndex])
+                & getNumbersThatFitIntoStraight(verticalCompartmentIdsForCells[cellIndex]);
     }
 
-    private void addStraightConflictsTo(final Set<Cell> conflicts, final int straightStartIndexInclusive,
-                                        final int straightEndIndexInclusive, final int startIndex,
-                                        final int otherIndex, final boolean inRow, final boolean addAll) {
-        // only one cell -> always a straight
-        if (straightStartIndexInclusive == straightEndIndexInclusive) {
-            return;
+    /*
+     * A compartment can only be filled with a straight that contains all of its numbers and no number that is
+     * somewhere else in its line. Numbers that are in every possible straight of another compartment in the same line
+     * have to be in that compartment, so they can't be used either. Numbers that are in no possible straight are
+     * stranded and can't be used at all.
+     */
+    private long getNumbersThatFitIntoStraight(final int compartmentId) {
+        final int line = linesOfCompartments[compartmentId];
+        final int firstCompartmentId = compartmentOffsetsForLines[line];
+        final int endCompartmentId = compartmentOffsetsForLines[line + 1];
+
+        long numbersInLine = numbersInBlackCellsOfLines[line];
+        for (int otherId = firstCompartmentId; otherId < endCompartmentId; otherId++) {
+            numbersInLine |= numbersInCompartments[otherId];
+        }
+
+        long requiredNumbersOfOthers = 0L;
+        for (int otherId = firstCompartmentId; otherId < endCompartmentId; otherId++) {
+            if (otherId != compartmentId) {
+                final long numbersInOther = numbersInCompartments[otherId];
+                requiredNumbersOfOthers |= combineStraights(lengthsOfCompartments[otherId], numbersInOther,
+                        numbersInLine & ~numbersInOther, false);
+            }
         }
 
-        // occurrences[n] == true -> cell value n + 1 already occurred in this straight
-        final boolean[] occurrences = new boolean[gridSize];
+        final long numbers = numbersInCompartments[compartmentId];
+        return combineStraights(lengthsOfCompartments[compartmentId], numbers,
+                (numbersInLine & ~numbers) | requiredNumbersOfOthers, true);
+    }
 
-        // fill occurrences
-        for (int index = straightStartIndexInclusive; index <= straightEndIndexInclusive; index++) {
-            final int cell = grid[inRow ? index : otherIndex][inRow ? otherIndex : index];
+    // returns the numbers that are in any (union) or in all (!union) straights of length consecutive numbers from 1 to
+    // gridSize that contain all numbers and none of the excludedNumbers (if there is no such straight, the union is
+    // empty and the intersection contains all numbers)
+    private long combineStraights(final int length, final long numbers, final long excludedNumbers,
+                                  final boolean union) {
+        long result = union ? 0L : getNumbersInRange(1, gridSize);
 
-            // straight can not be evaluated yet
-            if (cell == EMPTY_CELL) {
-                return;
+        for (long straight = getNumbersInRange(1, length); straight <= getNumbersInRange(1, gridSize); straight <<= 1) {
+            if ((straight & numbers) == numbers && (straight & excludedNumbers) == 0L) {
+                result = union ? result | straight : result & straight;
             }
-            // - 1 since cell values are out of [1, gridSize] but indices are out of [0, gridSize - 1]
-            occurrences[cell - 1] = true;
         }
 
-        boolean alreadyOneOccurrence = false; // whether iteration over occurrences has seen true
-        boolean reachedLastOccurrence = false; // whether iteration over occurrences has seen false after seeing true
-        for (final boolean occurrence : occurrences) { // in order 1, 2, ..., gridSize
+        return result;
+    }
+
 
-            if (occurrence) { // sees true
+    @Override
+    protected boolean hasConflicts(final int row, final int column) {
+        final int cellIndex = row * gridSize + column;
+        return super.hasConflicts(row, column) || (colors[row][column] == WHITE
+                && (hasBrokenStraight(horizontalCompartmentIdsForCells[cellIndex])
+                || hasBrokenStraight(verticalCompartmentIdsForCells[cellIndex])));
+    }
 
-                if (reachedLastOccurrence) { // sees true and has seen false after true -> no straight
+    @Override
+    protected boolean hasConflicts() {
+        return super.hasConflicts() || compartmentsWithBrokenStraights > 0;
+    }
 
-                    // add cells in this straight to conflicts (except current cell)
-                    for (int index = straightStartIndexInclusive; index <= straightEndIndexInclusive; index++) {
-                        if (index != startIndex) {
-                            conflicts.add(new Cell(inRow ? index : otherIndex, inRow ? otherIndex : index));
-                            if (!addAll) {
-                                return;
-                            }
-                        }
-                    }
-                    return; // return after adding conflicts
+    @Override
+    protected boolean hasEmptyCellsToFill() {
+        return filledWhiteCellCount < whiteCellCount; // black cells don't have to be filled
+    }
 
-                } else {
-                    alreadyOneOccurrence = true; // has seen true
-                }
+    @Override
+    protected Set<Cell> getConflictingCells(final int row, final int column, final boolean getAll) {
+
+        final Set<Cell> conflicts = super.getConflictingCells(row, column, getAll);
+        if ((!getAll && !conflicts.isEmpty()) || colors[row][column] == BLACK) {
+            // black cells don't have to be in a straight so there cannot exist any further conflicts
+            return conflicts;
+        }
+
+        final int cellIndex = row * gridSize + column;
+
+        // add conflicts of vertical straight
+        addStraightConflictsTo(conflicts, verticalCompartmentIdsForCells[cellIndex], cellIndex, getAll);
+
+        if (!getAll && !conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        // add conflicts of horizontal straight
+        addStraightConflictsTo(conflicts, horizontalCompartmentIdsForCells[cellIndex], cellIndex, getAll);
+
+        return conflicts;
+    }
 
-            } else if (alreadyOneOccurrence) { // sees false and has seen true
-                reachedLastOccurrence = true; // has seen false after true
+    private void addStraightConflictsTo(final Set<Cell> conflicts, final int compartmentId, final int cellIndexToSkip,
+                                        final boolean addAll) {
+        if (!hasBrokenStraight(compartmentId)) {
+            return;
+        }
+
+        // add cells in this straight to conflicts (except current cell)
+        final int length = lengthsOfCompartments[compartmentId];
+        final int start = startsOfCompartments[compartmentId], end = endsOfCompartments[compartmentId];
+        final int step = (end - start) / (length - 1); // 1 for horizontal, gridSize for vertical straights
+        for (int cellIndex = start; cellIndex <= end; cellIndex += step) {
+            if (cellIndex != cellIndexToSkip) {
+                conflicts.add(Cell.of(cellIndex / gridSize, cellIndex % gridSize));
+                if (!addAll) {
+                    return;
+                }
             }
         }
     }
@@ -252,9 +460,14 @@ public final class Str8ts extends AbstractPuzzle {
      */
     @Override
     protected boolean isInvalid() {
+        // colors have to be checked first since the conflicts depend on them
+        return hasInvalidColors() || super.isInvalid();
+    }
 
-        if (colors.length != gridSize || super.isInvalid()) {
-            return true; // wrong amount of rows in colors or grid is invalid
+    private boolean hasInvalidColors() {
+
+        if (colors.length != gridSize) {
+            return true; // wrong amount of rows in colors
         }
 
         for (int row = 0; row < gridSize; row++) {
@@ -269,7 +482,7 @@ public final class Str8ts extends AbstractPuzzle {
             }
         }
 
-        return false; // no rule was violated -> valid
+        return false;
     }
 
 
@@ -278,18 +491,11 @@ public final class Str8ts extends AbstractPuzzle {
         return deepEquals(this.colors, ((Str8ts) other).colors);
     }
 
-    @Override
-    public int hashCode() {
-        int result = super.hashCode();
-        result = 31 * result + deepHashCode(colors);
-        return result;
-    }
-
     @Override
     public String toString() {
         return "Str8ts{" +
                 "gridSize=" + gridSize +
-                ", grid=" + deepToString(grid) +
+                ", grid=" + deepToString(getGrid()) +
                 ", colors=" + deepToString(colors) +
                 '}';
     }
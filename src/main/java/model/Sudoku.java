@@ -11,6 +11,10 @@ import static java.util.Arrays.deepToString;
  * <ul>
  * <li>{@link #DEFAULT_SUB_GRID_SIZE} and {@link #DEFAULT_GRID_SIZE} - default value constants</li>
  * <li>{@link #getCopy()} - for creating new instances with the state of another instance</li>
+ * <li>
+ * {@link #getCanonicalForm()} and {@link #getFingerprint()} - for recognizing Sudokus that are the same except for
+ * symmetries
+ * </li>
  * </ul>
  *
  * @author Luca Kellermann
@@ -59,13 +63,44 @@ public final class Sudoku extends AbstractSudoku {
         }
     }
 
+    private Sudoku(final Sudoku other) {
+        super(other);
+    }
+
 
     /**
      * Returns a copy of this Sudoku.
      */
     @Override
     public Sudoku getCopy() {
-        return new Sudoku(grid);
+        return new Sudoku(this);
+    }
+
+
+    /**
+     * Returns the canonical form of this Sudoku, which is the same for all Sudokus that only differ by relabelling
+     * the numbers, permuting the rows in a band of sub-grids, permuting the bands, permuting the columns in a stack of
+     * sub-grids, permuting the stacks and transposing.
+     * <p>It is the equivalent Sudoku whose cell values are the smallest in row-major order after the numbers were
+     * relabelled in the order of their first appearance.</p>
+     * <p>This takes less than a millisecond for an unsolved Sudoku with the {@link #DEFAULT_GRID_SIZE} and a few
+     * milliseconds for a full one. The time grows with {@code subGridSize!^(subGridSize + 1)} though, so it is not
+     * practical for Sudokus bigger than that.</p>
+     */
+    public Sudoku getCanonicalForm() {
+        final Sudoku canonicalForm = new Sudoku(subGridSize);
+        canonicalForm.applySolution(new SudokuCanonicalizer(subGridSize, grid).canonicalize());
+        return canonicalForm;
+    }
+
+    /**
+     * Returns a 64-bit fingerprint of the {@link #getCanonicalForm() canonical form} of this Sudoku.
+     * <p>Equivalent Sudokus have equal fingerprints. Sudokus that are not equivalent have different fingerprints with
+     * a very high probability, but not always. Finding the canonical form takes most of the time, so the same size
+     * limit applies.</p>
+     */
+    public long getFingerprint() {
+        return getCanonicalForm().getStateHash();
     }
 
 
@@ -82,7 +117,7 @@ public final class Sudoku extends AbstractSudoku {
         return "Sudoku{" +
                 "subGridSize=" + subGridSize +
                 ", gridSize=" + gridSize +
-                ", grid=" + deepToString(grid) +
+                ", grid=" + deepToString(getGrid()) +
                 '}';
     }
 }
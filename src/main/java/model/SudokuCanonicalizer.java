@@ -0,0 +1,278 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Finds the canonical form of the cell values of a {@link Sudoku}, which is the same for all Sudokus that are
+ * equivalent under the symmetries that keep every solution valid: relabelling the numbers, permuting the rows in a band
+ * (a row of sub-grids), permuting the bands, permuting the columns in a stack (a column of sub-grids), permuting the
+ * stacks and transposing.
+ * <p>The canonical form is the smallest of all equivalent grids in row-major order ({@link Sudoku#EMPTY_CELL} being
+ * the smallest value) where the numbers are relabelled in the order of their first appearance. For every column order
+ * the rows are chosen one after another and only the rows that lead to the smallest next row are tried, so most column
+ * orders are given up after the first row. Before that, a column order is given up as soon as no row can become the
+ * smallest possible first row with it anymore (which only depends on where its empty cells are). The number of column
+ * orders grows with {@code subGridSize!^(subGridSize + 1)}, so this is fast for {@code 9x9} Sudokus but not for bigger
+ * ones (and for full grids, where every row can be the first row).</p>
+ * <p>An instance can be used for one canonicalization only.</p>
+ *
+ * @author Luca Kellermann
+ */
+final class SudokuCanonicalizer {
+
+    private final int subGridSize;
+    private final int gridSize;
+
+    // the grid and its transposition, indexed by row * gridSize + column
+    private final byte[][] grids;
+    private byte[] grid;
+
+    // the columns of the grid in the order they are put into the canonical form, used stacks/columns are marked
+    private final int[] columnOrder;
+    private final boolean[] usedStacks;
+    private final boolean[] usedColumns;
+
+    // the smallest first row of all equivalent grids and isTied[position][row] tells whether row can still become it
+    // with the columns before position
+    private final int[] minFirstRow;
+    private final boolean[][] isTied;
+
+    // the rows of the grid in the order they are put into the canonical form, used bands/rows are marked
+    private final int[] rowOrder;
+    private final boolean[] usedBands;
+    private final boolean[] usedRows;
+
+    // labels[depth][number] is the new label of number after depth rows or 0 if it did not appear yet
+    private final int[][] labels;
+    private final int[] labelCounts;
+
+    // the relabelled rows that are chosen so far and the smallest grid that was found
+    private final int[] current;
+    private final int[] best;
+    private boolean hasBest;
+
+    // scratch space for comparing rows, minRows[depth] is the smallest row that can be at depth
+    private final int[] rowValues;
+    private final int[][] minRows;
+
+
+    SudokuCanonicalizer(final int subGridSize, final byte[] grid) {
+        this.subGridSize = subGridSize;
+        gridSize = subGridSize * subGridSize;
+        final byte[] transposedGrid = new byte[grid.length];
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                transposedGrid[column * gridSize + row] = grid[row * gridSize + column];
+            }
+        }
+        grids = new byte[][]{grid, transposedGrid};
+        columnOrder = new int[gridSize];
+        usedStacks = new boolean[subGridSize];
+        usedColumns = new boolean[gridSize];
+        minFirstRow = findMinFirstRow();
+        isTied = new boolean[gridSize + 1][gridSize];
+        rowOrder = new int[gridSize];
+        usedBands = new boolean[subGridSize];
+        usedRows = new boolean[gridSize];
+        labels = new int[gridSize + 1][gridSize + 1];
+        labelCounts = new int[gridSize + 1];
+        current = new int[grid.length];
+        best = new int[grid.length];
+        rowValues = new int[gridSize];
+        minRows = new int[gridSize][gridSize];
+    }
+
+
+    /**
+     * Returns the cell values of the canonical form, indexed by {@code row * gridSize + column}.
+     */
+    int[] canonicalize() {
+        for (final byte[] g : grids) {
+            grid = g;
+            Arrays.fill(isTied[0], true);
+            searchColumnOrders(0);
+        }
+        return best.clone();
+    }
+
+    private void searchColumnOrders(final int position) {
+        if (position == gridSize) {
+            searchRows(0, hasBest);
+            return;
+        }
+
+        if (position % subGridSize == 0) {
+            // start a new stack with any of its columns
+            for (int stack = 0; stack < subGridSize; stack++) {
+                if (!usedStacks[stack]) {
+                    usedStacks[stack] = true;
+                    for (int column = stack * subGridSize; column < (stack + 1) * subGridSize; column++) {
+                        useColumn(position, column);
+                    }
+                    usedStacks[stack] = false;
+                }
+            }
+        } else {
+            // continue the stack of the previous column
+            final int stack = columnOrder[position - 1] / subGridSize;
+            for (int column = stack * subGridSize; column < (stack + 1) * subGridSize; column++) {
+                if (!usedColumns[column]) {
+                    useColumn(position, column);
+                }
+            }
+        }
+    }
+
+    private void useColumn(final int position, final int column) {
+        if (!updateTiedRows(position, column)) {
+            return; // every grid with this column at position has a bigger first row than the smallest possible one
+        }
+        usedColumns[column] = true;
+        columnOrder[position] = column;
+        searchColumnOrders(position + 1);
+        usedColumns[column] = false;
+    }
+
+    // puts the rows that can still become minFirstRow with column at position into isTied[position + 1], returns
+    // whether there is one
+    private boolean updateTiedRows(final int position, final int column) {
+        final boolean shouldBeEmpty = minFirstRow[position] == Sudoku.EMPTY_CELL;
+        boolean hasTiedRow = false;
+        for (int row = 0; row < gridSize; row++) {
+            isTied[position + 1][row] = isTied[position][row]
+                    && (grid[row * gridSize + column] == Sudoku.EMPTY_CELL) == shouldBeEmpty;
+            hasTiedRow |= isTied[position + 1][row];
+        }
+        return hasTiedRow;
+    }
+
+    // a row has no repeated numbers, so its relabelled numbers are 1, 2, 3, ... from left to right and it is smallest
+    // if its empty cells are as far left as possible: in the stacks with the most empty cells and there in the first
+    // columns
+    private int[] findMinFirstRow() {
+        final int[] minRow = new int[gridSize];
+        final int[] row = new int[gridSize];
+        final int[] emptyCounts = new int[subGridSize];
+        boolean hasMinRow = false;
+        for (final byte[] g : grids) {
+            for (int rowIndex = 0; rowIndex < gridSize; rowIndex++) {
+                Arrays.fill(emptyCounts, 0);
+                for (int column = 0; column < gridSize; column++) {
+                    if (g[rowIndex * gridSize + column] == Sudoku.EMPTY_CELL) {
+                        emptyCounts[column / subGridSize]++;
+                    }
+                }
+                Arrays.sort(emptyCounts);
+
+                int label = 0;
+                for (int stack = 0; stack < subGridSize; stack++) {
+                    final int emptyCount = emptyCounts[subGridSize - 1 - stack];
+                    for (int offset = 0; offset < subGridSize; offset++) {
+                        row[stack * subGridSize + offset] = offset < emptyCount ? Sudoku.EMPTY_CELL : ++label;
+                    }
+                }
+                if (!hasMinRow || Arrays.compare(row, minRow) < 0) {
+                    System.arraycopy(row, 0, minRow, 0, gridSize);
+                    hasMinRow = true;
+                }
+            }
+        }
+        return minRow;
+    }
+
+    // returns whether best was replaced, prefixIsEqual tells whether the rows before depth are the same as in best
+    // (otherwise they are smaller)
+    private boolean searchRows(final int depth, final boolean prefixIsEqual) {
+        if (depth == gridSize) {
+            System.arraycopy(current, 0, best, 0, current.length);
+            hasBest = true;
+            return true;
+        }
+
+        // find the smallest row that can be put at depth
+        final int[] minRow = minRows[depth];
+        boolean hasMinRow = false;
+        final int firstRow = getFirstCandidateRow(depth), endRow = getEndCandidateRow(depth);
+        for (int row = firstRow; row < endRow; row++) {
+            if (isCandidateRow(depth, row)) {
+                relabelRow(depth, row);
+                if (!hasMinRow || Arrays.compare(rowValues, minRow) < 0) {
+                    System.arraycopy(rowValues, 0, minRow, 0, gridSize);
+                    hasMinRow = true;
+                }
+            }
+        }
+
+        boolean isEqual = prefixIsEqual;
+        if (isEqual) {
+            final int comparison = Arrays.compare(minRow, 0, gridSize, best, depth * gridSize, (depth + 1) * gridSize);
+            if (comparison > 0) {
+                return false; // every grid with this prefix is bigger than best
+            }
+            isEqual = comparison == 0;
+        }
+
+        // try all rows that lead to the smallest row
+        boolean replaced = false;
+        for (int row = firstRow; row < endRow; row++) {
+            if (isCandidateRow(depth, row)) {
+                relabelRow(depth, row);
+                if (Arrays.equals(rowValues, minRow)) {
+                    System.arraycopy(rowValues, 0, current, depth * gridSize, gridSize);
+                    useRow(depth, row);
+                    // after best was replaced, the prefix is the same as in best
+                    replaced |= searchRows(depth + 1, isEqual || replaced);
+                    unuseRow(depth, row);
+                }
+            }
+        }
+        return replaced;
+    }
+
+    // the first row of a band can be from any unused band, the other rows have to be from the same band
+    private int getFirstCandidateRow(final int depth) {
+        return depth % subGridSize == 0 ? 0 : (rowOrder[depth - 1] / subGridSize) * subGridSize;
+    }
+
+    private int getEndCandidateRow(final int depth) {
+        return depth % subGridSize == 0 ? gridSize : getFirstCandidateRow(depth) + subGridSize;
+    }
+
+    // only the tied rows can be the first row
+    private boolean isCandidateRow(final int depth, final int row) {
+        if (depth == 0) {
+            return isTied[gridSize][row];
+        }
+        return depth % subGridSize == 0 ? !usedBands[row / subGridSize] : !usedRows[row];
+    }
+
+    private void useRow(final int depth, final int row) {
+        rowOrder[depth] = row;
+        usedRows[row] = true;
+        if (depth % subGridSize == 0) {
+            usedBands[row / subGridSize] = true;
+        }
+    }
+
+    private void unuseRow(final int depth, final int row) {
+        usedRows[row] = false;
+        if (depth % subGridSize == 0) {
+            usedBands[row / subGridSize] = false;
+        }
+    }
+
+    // puts the relabelled values of row into rowValues and the labels after it into labels[depth + 1]
+    private void relabelRow(final int depth, final int row) {
+        final int[] rowLabels = labels[depth + 1];
+        System.arraycopy(labels[depth], 0, rowLabels, 0, gridSize + 1);
+        int labelCount = labelCounts[depth];
+        for (int position = 0; position < gridSize; position++) {
+            final int number = grid[row * gridSize + columnOrder[position]];
+            if (number != Sudoku.EMPTY_CELL && rowLabels[number] == 0) {
+                rowLabels[number] = ++labelCount;
+            }
+            rowValues[position] = rowLabels[number]; // rowLabels[EMPTY_CELL] is always 0
+        }
+        labelCounts[depth + 1] = labelCount;
+    }
+}
@@ -1,16 +1,20 @@
 package model;
 
 import model.AbstractPuzzle.Cell;
+import model.SudokuGrader.Difficulty;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Collections.shuffle;
-import static model.AbstractPuzzle.SolveResult;
+import static java.util.Objects.requireNonNull;
+import static util.Checks.requireNonNegative;
+import static util.Checks.requirePositive;
 
 /**
- * Uninstantiable class with a static method to generate a random unsolved {@link Sudoku} and its solution.
+ * Uninstantiable class with static methods to generate random unsolved {@link Sudoku Sudokus} and their solutions.
  *
  * @author Luca Kellermann
  */
@@ -21,9 +25,206 @@ public final class SudokuGenerator {
      */
     public final record SudokuAndSolution(Sudoku sudoku, Sudoku solution) {}
 
+    // a generated Sudoku with the fingerprint that generate() deduplicates by
+    private static final record FingerprintedSudoku(SudokuAndSolution sudokuAndSolution, long fingerprint) {}
+
+    /**
+     * The maximum number of candidates that are tried by
+     * {@link #generateSudokuAndSolution(int, long, Difficulty) generateSudokuAndSolution()}.
+     */
+    public static final int MAX_CANDIDATES_FOR_DIFFICULTY = 1000;
+
+    /**
+     * The maximum number of equivalent Sudokus in a row that {@link #generate(int, int, int, long) generate()} drops
+     * before it gives up with an {@link IllegalStateException} because there are not enough distinct Sudokus (e.g.
+     * there are only a few dozen distinct {@code 4x4} Sudokus).
+     */
+    public static final int MAX_DUPLICATES_IN_A_ROW = 1000;
+
 
     public static SudokuAndSolution generateSudokuAndSolution(final int subGridSize) {
-        final Random random = new Random();
+        return generateSudokuAndSolution(subGridSize, new Random());
+    }
+
+    /**
+     * Generates a Sudoku with the specified {@code subGridSize} and its solution from {@code seed}.
+     * <p>The same {@code subGridSize} and {@code seed} always lead to the same Sudoku with this version of the
+     * generator and the solver, on every machine. This can be used to replay a slow generation or to give everybody
+     * the same puzzle (e.g. with the {@link java.time.LocalDate#toEpochDay() epoch day} of today as the seed).</p>
+     *
+     * @throws IllegalArgumentException if {@code subGridSize} is negative or too big
+     */
+    public static SudokuAndSolution generateSudokuAndSolution(final int subGridSize, final long seed) {
+        return generateSudokuAndSolution(subGridSize, new Random(seed));
+    }
+
+    /**
+     * Generates a Sudoku with the specified {@code subGridSize} and {@code difficulty} and its solution from
+     * {@code seed}.
+     * <p>Candidates are generated like by {@link #generateSudokuAndSolution(int, long)} and
+     * {@link SudokuGrader#grade(Sudoku) graded}. A candidate that is too hard is repaired by giving back cells of its
+     * solution in random order until it is in the {@code difficulty} band, a candidate that is (or becomes) too easy
+     * is rejected. Hard bands are rarer, so they need more candidates. The same arguments always lead to the same
+     * Sudoku.</p>
+     *
+     * @throws IllegalArgumentException if {@code subGridSize} is negative or too big
+     * @throws NullPointerException     if {@code difficulty} is {@code null}
+     * @throws IllegalStateException    if no Sudoku with {@code difficulty} was found in
+     *                                  {@value #MAX_CANDIDATES_FOR_DIFFICULTY} candidates (e.g. because Sudokus with
+     *                                  this {@code subGridSize} are never that hard)
+     */
+    public static SudokuAndSolution generateSudokuAndSolution(final int subGridSize, final long seed,
+                                                              final Difficulty difficulty) {
+        requireNonNull(difficulty);
+        final Random random = new Random(seed);
+        for (int candidate = 0; candidate < MAX_CANDIDATES_FOR_DIFFICULTY; candidate++) {
+            final SudokuAndSolution sudokuAndSolution = generateSudokuAndSolution(subGridSize, random);
+            if (repairToDifficulty(sudokuAndSolution, difficulty, random)) {
+                return sudokuAndSolution;
+            }
+        }
+        throw new IllegalStateException("Could not generate a Sudoku with difficulty " + difficulty + "!");
+    }
+
+    // gives back cells of the solution until the Sudoku is not harder than difficulty, returns whether it has
+    // difficulty then
+    private static boolean repairToDifficulty(final SudokuAndSolution sudokuAndSolution, final Difficulty difficulty,
+                                              final Random random) {
+        final Sudoku sudoku = sudokuAndSolution.sudoku();
+        Difficulty current = SudokuGrader.grade(sudoku).difficulty();
+        if (current.compareTo(difficulty) > 0) {
+            final List<Cell> emptyCells = new ArrayList<>();
+            for (int row = 0; row < sudoku.getGridSize(); row++) {
+                for (int column = 0; column < sudoku.getGridSize(); column++) {
+                    if (sudoku.getCell(row, column) == Sudoku.EMPTY_CELL) {
+                        emptyCells.add(Cell.of(row, column));
+                    }
+                }
+            }
+            shuffle(emptyCells, random);
+
+            // a given can only make the Sudoku easier, the solution stays unique
+            for (int index = 0; index < emptyCells.size() && current.compareTo(difficulty) > 0; index++) {
+                final Cell cell = emptyCells.get(index);
+                final int number = sudokuAndSolution.solution().getCell(cell.row(), cell.column());
+                sudoku.setCell(cell.row(), cell.column(), number);
+                current = SudokuGrader.grade(sudoku).difficulty();
+            }
+        }
+        return current == difficulty;
+    }
+
+    /**
+     * Generates {@code count} Sudokus with the specified {@code subGridSize} and their solutions on
+     * {@code parallelism} threads.
+     * <p>Every Sudoku is {@link #generateSudokuAndSolution(int, long) generated from its own seed} that is taken from a
+     * {@link SplittableRandom} with the specified {@code seed}, so the same arguments always lead to the same Sudokus
+     * (no matter how many threads are used). The Sudokus are returned in the order they are finished though.</p>
+     * <p>For a {@code subGridSize} of at most {@link Sudoku#DEFAULT_SUB_GRID_SIZE}, no two returned Sudokus are
+     * equivalent: a finished Sudoku with the same {@link Sudoku#getFingerprint() fingerprint} as a previously returned
+     * one is dropped and replaced by a Sudoku from the next seed. Which of two equivalent Sudokus is dropped depends on
+     * the order they are finished in, so the returned Sudokus only depend on the arguments if nothing is dropped (which
+     * practically never happens for {@code 9x9} Sudokus) or if {@code parallelism} is {@code 1}. Bigger Sudokus are not
+     * deduplicated since their canonical form takes too long to find (and they are practically never equivalent
+     * anyway).</p>
+     * <p>Generation starts immediately, but only {@code parallelism} Sudokus are generated ahead: a new one is only
+     * started when a finished one is taken from the stream. Closing the stream cancels the Sudokus that are being
+     * generated.</p>
+     *
+     * @throws IllegalArgumentException if {@code count} is negative, {@code parallelism} is not positive or
+     *                                  {@code subGridSize} is negative or too big
+     * @see #MAX_DUPLICATES_IN_A_ROW
+     */
+    public static Stream<SudokuAndSolution> generate(final int count, final int subGridSize, final int parallelism,
+                                                     final long seed) {
+        requireNonNegative(count, "count has to be positive or 0!");
+        requirePositive(parallelism, "parallelism has to be positive!");
+        new Sudoku(subGridSize); // fail fast on invalid sizes instead of in every task
+        final boolean deduplicate = subGridSize <= Sudoku.DEFAULT_SUB_GRID_SIZE;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "SudokuGenerator");
+            thread.setDaemon(true); // don't keep the JVM alive if the stream is not consumed
+            return thread;
+        });
+        final Iterator<SudokuAndSolution> results = new Iterator<>() {
+
+            private final SplittableRandom seeds = new SplittableRandom(seed);
+            // in the order they are finished, the fingerprints are computed on the worker threads as well
+            private final CompletionService<FingerprintedSudoku> completionService =
+                    new ExecutorCompletionService<>(executor);
+            private final Set<Long> fingerprints = new HashSet<>();
+            private int remaining = count;
+            private int inProgress = 0;
+
+            {
+                submitUpToParallelism();
+            }
+
+            // keeps every thread busy, but doesn't generate more Sudokus than are still needed
+            private void submitUpToParallelism() {
+                while (inProgress < Math.min(remaining, parallelism)) {
+                    submitNextSeed();
+                }
+            }
+
+            private void submitNextSeed() {
+                inProgress++;
+                final long sudokuSeed = seeds.nextLong();
+                completionService.submit(() -> {
+                    final SudokuAndSolution sudokuAndSolution = generateSudokuAndSolution(subGridSize, sudokuSeed);
+                    return new FingerprintedSudoku(sudokuAndSolution,
+                            deduplicate ? sudokuAndSolution.sudoku().getFingerprint() : 0L);
+                });
+            }
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public SudokuAndSolution next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                for (int duplicates = 0; duplicates <= MAX_DUPLICATES_IN_A_ROW; duplicates++) {
+                    final FingerprintedSudoku next = awaitNext();
+                    inProgress--;
+                    if (!deduplicate || fingerprints.add(next.fingerprint())) {
+                        if (--remaining == 0) {
+                            executor.shutdown();
+                        }
+                        submitUpToParallelism();
+                        return next.sudokuAndSolution();
+                    }
+                    submitUpToParallelism(); // replace the duplicate
+                }
+                executor.shutdownNow();
+                throw new IllegalStateException("Could not generate enough distinct Sudokus!");
+            }
+
+            private FingerprintedSudoku awaitNext() {
+                try {
+                    return completionService.take().get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    throw new CancellationException("Interrupted while waiting for the next Sudoku!");
+                } catch (final ExecutionException e) {
+                    executor.shutdownNow();
+                    throw new IllegalStateException("Could not generate a Sudoku!", e.getCause());
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliterator(results, count, Spliterator.NONNULL), false)
+                .onClose(executor::shutdownNow);
+    }
+
+    // random is used for filling the Sudoku and for the order in which cells are removed, so the result only depends
+    // on the sequence of random numbers
+    private static SudokuAndSolution generateSudokuAndSolution(final int subGridSize, final Random random) {
         final Sudoku randomSudoku = new Sudoku(subGridSize, random);
         final Sudoku solution = randomSudoku.getCopy();
 
@@ -31,17 +232,17 @@ public final class SudokuGenerator {
         final List<Cell> cells = new ArrayList<>(randomSudoku.getNumberOfCells());
         for (int row = 0; row < randomSudoku.getGridSize(); row++) {
             for (int column = 0; column < randomSudoku.getGridSize(); column++) {
-                cells.add(new Cell(row, column));
+                cells.add(Cell.of(row, column));
             }
         }
         shuffle(cells, random);
 
         // reset each cell (but only if there still is a unique solution after reset)
         for (final Cell cell : cells) {
-            final int previousCellValue = randomSudoku.getCell(cell.row(), cell.column());
-            randomSudoku.resetCell(cell.row(), cell.column());
-            if (randomSudoku.getCopy().solve() != SolveResult.ONE_SOLUTION) {
-                randomSudoku.setCell(cell.row(), cell.column(), previousCellValue);
+            final int mark = randomSudoku.mark();
+            randomSudoku.applyMove(cell.row(), cell.column(), Sudoku.EMPTY_CELL);
+            if (randomSudoku.countSolutions(2) != 1) {
+                randomSudoku.rollbackTo(mark);
             }
         }
 
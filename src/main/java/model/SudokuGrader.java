@@ -0,0 +1,484 @@
+package model;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Grades how hard a {@link Sudoku} is for humans by solving it only with {@link Technique techniques} that humans use.
+ * <p>The easiest technique that makes progress is applied until the Sudoku is solved or no technique makes progress
+ * anymore. The {@link Grade grade} consists of the hardest technique that was needed and a score that adds up the
+ * {@link Technique#getWeight() weights} of all applied techniques. Candidates are bitmasks (bit {@code n - 1} for
+ * number {@code n}), so grading a Sudoku with the {@link Sudoku#DEFAULT_GRID_SIZE} takes well below a millisecond.</p>
+ *
+ * @author Luca Kellermann
+ */
+public final class SudokuGrader {
+
+    /**
+     * The techniques that are used for grading, from the easiest to the hardest.
+     */
+    public enum Technique {
+
+        /**
+         * A cell has only one candidate left.
+         */
+        NAKED_SINGLE(1),
+
+        /**
+         * A number has only one cell left in a row, column or sub-grid.
+         */
+        HIDDEN_SINGLE(2),
+
+        /**
+         * All candidates of a number in a sub-grid are in one row or column, so the number can be removed from the
+         * rest of the row or column.
+         */
+        POINTING(5),
+
+        /**
+         * All candidates of a number in a row or column are in one sub-grid, so the number can be removed from the
+         * rest of the sub-grid.
+         */
+        BOX_LINE_REDUCTION(6),
+
+        /**
+         * Two cells in a row, column or sub-grid have the same two candidates, so these can be removed from the other
+         * cells.
+         */
+        NAKED_PAIR(8),
+
+        /**
+         * Two numbers in a row, column or sub-grid have the same two cells left, so all other candidates of these cells
+         * can be removed.
+         */
+        HIDDEN_PAIR(10),
+
+        /**
+         * Three cells in a row, column or sub-grid have only three candidates together, so these can be removed from
+         * the other cells.
+         */
+        NAKED_TRIPLE(12),
+
+        /**
+         * A number has the same two columns left in two rows (or the same two rows in two columns), so it can be
+         * removed from the rest of these columns (or rows).
+         */
+        X_WING(20),
+        ;
+
+        private final int weight;
+
+        Technique(final int weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * Returns how much one application of this technique adds to the {@link Grade#score() score}.
+         */
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * Bands of {@link Grade grades} that can be requested from the {@link SudokuGenerator}.
+     */
+    public enum Difficulty {
+
+        /**
+         * Only singles are needed.
+         */
+        EASY,
+
+        /**
+         * Locked candidates or pairs are needed.
+         */
+        MEDIUM,
+
+        /**
+         * Naked triples or X-wings are needed.
+         */
+        HARD,
+
+        /**
+         * The Sudoku can't be solved with the {@link Technique techniques} of the grader.
+         */
+        EXPERT,
+    }
+
+    /**
+     * The result of {@link #grade(Sudoku) grading} a Sudoku.
+     *
+     * @param hardestTechnique the hardest {@link Technique technique} that was applied or {@code null} if the Sudoku
+     *                         was already solved
+     * @param score            the sum of the {@link Technique#getWeight() weights} of all applied techniques
+     * @param isSolved         {@code true} if the Sudoku could be solved with the techniques, {@code false} if it needs
+     *                         harder techniques, has no solution or multiple solutions
+     */
+    public static final record Grade(Technique hardestTechnique, int score, boolean isSolved) {
+
+        /**
+         * Returns the {@link Difficulty difficulty} band of this grade.
+         */
+        public Difficulty difficulty() {
+            if (!isSolved) {
+                return Difficulty.EXPERT;
+            }
+            if (hardestTechnique == null || hardestTechnique.compareTo(Technique.HIDDEN_SINGLE) <= 0) {
+                return Difficulty.EASY;
+            }
+            return hardestTechnique.compareTo(Technique.HIDDEN_PAIR) <= 0 ? Difficulty.MEDIUM : Difficulty.HARD;
+        }
+    }
+
+
+    private final int subGridSize;
+    private final int gridSize;
+
+    private final int[] cells; // indexed by row * gridSize + column
+    private final long[] candidates; // bitmasks of the candidates of each cell, 0 for filled cells
+    private int emptyCellCount;
+
+    // the cell indices of all rows, columns and sub-grids (in this order), indexed by unit and position in unit
+    private final int[][] units;
+
+
+    private SudokuGrader(final Sudoku sudoku) {
+        subGridSize = sudoku.getSubGridSize();
+        gridSize = sudoku.getGridSize();
+        cells = new int[gridSize * gridSize];
+        candidates = new long[gridSize * gridSize];
+        units = new int[3 * gridSize][gridSize];
+        for (int line = 0; line < gridSize; line++) {
+            final int firstRowOfSubGrid = (line / subGridSize) * subGridSize;
+            final int firstColumnOfSubGrid = (line % subGridSize) * subGridSize;
+            for (int position = 0; position < gridSize; position++) {
+                units[line][position] = line * gridSize + position;
+                units[gridSize + line][position] = position * gridSize + line;
+                units[2 * gridSize + line][position] = (firstRowOfSubGrid + position / subGridSize) * gridSize
+                        + firstColumnOfSubGrid + position % subGridSize;
+            }
+        }
+
+        final long allNumbers = gridSize == Long.SIZE ? -1L : (1L << gridSize) - 1L;
+        Arrays.fill(candidates, allNumbers);
+        emptyCellCount = cells.length;
+        for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+            final int number = sudoku.getCell(cellIndex / gridSize, cellIndex % gridSize);
+            if (number != Sudoku.EMPTY_CELL) {
+                place(cellIndex, number);
+            }
+        }
+    }
+
+
+    /**
+     * Grades {@code sudoku} (which is not changed).
+     *
+     * @throws NullPointerException if {@code sudoku} is {@code null}
+     */
+    public static Grade grade(final Sudoku sudoku) {
+        return new SudokuGrader(requireNonNull(sudoku)).solve();
+    }
+
+    private Grade solve() {
+        Technique hardestTechnique = null;
+        int score = 0;
+
+        while (emptyCellCount > 0 && !hasCellWithoutCandidates()) {
+            final Technique technique = applyEasiestTechnique();
+            if (technique == null) {
+                break; // stuck
+            }
+            score += technique.getWeight();
+            if (hardestTechnique == null || technique.compareTo(hardestTechnique) > 0) {
+                hardestTechnique = technique;
+            }
+        }
+
+        return new Grade(hardestTechnique, score, emptyCellCount == 0);
+    }
+
+    // returns the technique that made progress or null if none did
+    private Technique applyEasiestTechnique() {
+        for (final Technique technique : Technique.values()) {
+            final boolean madeProgress = switch (technique) {
+                case NAKED_SINGLE -> applyNakedSingle();
+                case HIDDEN_SINGLE -> applyHiddenSingle();
+                case POINTING -> applyLockedCandidates(true);
+                case BOX_LINE_REDUCTION -> applyLockedCandidates(false);
+                case NAKED_PAIR -> applyNakedPair();
+                case HIDDEN_PAIR -> applyHiddenPair();
+                case NAKED_TRIPLE -> applyNakedTriple();
+                case X_WING -> applyXWing(true) || applyXWing(false);
+            };
+            if (madeProgress) {
+                return technique;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasCellWithoutCandidates() {
+        for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+            if (cells[cellIndex] == Sudoku.EMPTY_CELL && candidates[cellIndex] == 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private int getRowUnit(final int cellIndex) {
+        return cellIndex / gridSize;
+    }
+
+    private int getColumnUnit(final int cellIndex) {
+        return gridSize + cellIndex % gridSize;
+    }
+
+    private int getSubGridUnit(final int cellIndex) {
+        final int row = cellIndex / gridSize, column = cellIndex % gridSize;
+        return 2 * gridSize + (row / subGridSize) * subGridSize + column / subGridSize;
+    }
+
+    private void place(final int cellIndex, final int number) {
+        cells[cellIndex] = number;
+        candidates[cellIndex] = 0L;
+        emptyCellCount--;
+        final long mask = 1L << (number - 1);
+        for (final int unit : new int[]{getRowUnit(cellIndex), getColumnUnit(cellIndex), getSubGridUnit(cellIndex)}) {
+            for (final int otherCellIndex : units[unit]) {
+                candidates[otherCellIndex] &= ~mask;
+            }
+        }
+    }
+
+    // returns true if any of the numbers were candidates of the cell
+    private boolean eliminate(final int cellIndex, final long numbers) {
+        if ((candidates[cellIndex] & numbers) == 0L) {
+            return false;
+        }
+        candidates[cellIndex] &= ~numbers;
+        return true;
+    }
+
+
+    private boolean applyNakedSingle() {
+        for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+            if (Long.bitCount(candidates[cellIndex]) == 1) {
+                place(cellIndex, Long.numberOfTrailingZeros(candidates[cellIndex]) + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean applyHiddenSingle() {
+        for (final int[] unit : units) {
+            // numbers that are candidates in at least one/at least two cells of the unit
+            long once = 0L, twice = 0L;
+            for (final int cellIndex : unit) {
+                twice |= once & candidates[cellIndex];
+                once |= candidates[cellIndex];
+            }
+            final long hiddenSingles = once & ~twice;
+            if (hiddenSingles != 0L) {
+                final long mask = Long.lowestOneBit(hiddenSingles);
+                for (final int cellIndex : unit) {
+                    if ((candidates[cellIndex] & mask) != 0L) {
+                        place(cellIndex, Long.numberOfTrailingZeros(mask) + 1);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // pointing: from a sub-grid to a line, box-line reduction: from a line to a sub-grid
+    private boolean applyLockedCandidates(final boolean pointing) {
+        final int firstUnit = pointing ? 2 * gridSize : 0, endUnit = pointing ? 3 * gridSize : 2 * gridSize;
+        for (int unit = firstUnit; unit < endUnit; unit++) {
+            for (int number = 1; number <= gridSize; number++) {
+                final long mask = 1L << (number - 1);
+
+                // the other units that contain all candidates of number in unit
+                int commonRow = -1, commonColumn = -1, commonSubGrid = -1, count = 0;
+                for (final int cellIndex : units[unit]) {
+                    if ((candidates[cellIndex] & mask) != 0L) {
+                        commonRow = count == 0 || commonRow == getRowUnit(cellIndex) ? getRowUnit(cellIndex) : -2;
+                        commonColumn = count == 0 || commonColumn == getColumnUnit(cellIndex)
+                                ? getColumnUnit(cellIndex) : -2;
+                        commonSubGrid = count == 0 || commonSubGrid == getSubGridUnit(cellIndex)
+                                ? getSubGridUnit(cellIndex) : -2;
+                        count++;
+                    }
+                }
+                if (count < 2) {
+                    continue; // hidden singles are easier
+                }
+
+                final int[] targetUnits = pointing ? new int[]{commonRow, commonColumn} : new int[]{commonSubGrid};
+                for (final int targetUnit : targetUnits) {
+                    if (targetUnit >= 0 && targetUnit != unit && eliminateOutside(targetUnit, unit, mask)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // removes numbers from all cells of targetUnit that are not in excludedUnit
+    private boolean eliminateOutside(final int targetUnit, final int excludedUnit, final long numbers) {
+        boolean eliminated = false;
+        for (final int cellIndex : units[targetUnit]) {
+            if (!contains(units[excludedUnit], cellIndex)) {
+                eliminated |= eliminate(cellIndex, numbers);
+            }
+        }
+        return eliminated;
+    }
+
+    private static boolean contains(final int[] unit, final int cellIndex) {
+        for (final int otherCellIndex : unit) {
+            if (otherCellIndex == cellIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean applyNakedPair() {
+        for (final int[] unit : units) {
+            for (int first = 0; first < gridSize; first++) {
+                final long pair = candidates[unit[first]];
+                if (Long.bitCount(pair) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < gridSize; second++) {
+                    if (candidates[unit[second]] == pair && eliminateFromOthers(unit, pair, first, second, -1)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean applyNakedTriple() {
+        for (final int[] unit : units) {
+            for (int first = 0; first < gridSize; first++) {
+                if (!isPartOfTriple(candidates[unit[first]])) {
+                    continue;
+                }
+                for (int second = first + 1; second < gridSize; second++) {
+                    if (!isPartOfTriple(candidates[unit[second]])
+                            || Long.bitCount(candidates[unit[first]] | candidates[unit[second]]) > 3) {
+                        continue;
+                    }
+                    for (int third = second + 1; third < gridSize; third++) {
+                        final long triple = candidates[unit[first]] | candidates[unit[second]]
+                                | candidates[unit[third]];
+                        if (isPartOfTriple(candidates[unit[third]]) && Long.bitCount(triple) == 3
+                                && eliminateFromOthers(unit, triple, first, second, third)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPartOfTriple(final long cellCandidates) {
+        final int count = Long.bitCount(cellCandidates);
+        return count == 2 || count == 3;
+    }
+
+    // removes numbers from all cells of unit except the ones at the specified positions
+    private boolean eliminateFromOthers(final int[] unit, final long numbers, final int first, final int second,
+                                        final int third) {
+        boolean eliminated = false;
+        for (int position = 0; position < gridSize; position++) {
+            if (position != first && position != second && position != third) {
+                eliminated |= eliminate(unit[position], numbers);
+            }
+        }
+        return eliminated;
+    }
+
+    private boolean applyHiddenPair() {
+        final long[] positionsOfNumbers = new long[gridSize + 1];
+        for (final int[] unit : units) {
+            for (int number = 1; number <= gridSize; number++) {
+                positionsOfNumbers[number] = getPositionsOf(unit, number);
+            }
+            for (int first = 1; first <= gridSize; first++) {
+                if (Long.bitCount(positionsOfNumbers[first]) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second <= gridSize; second++) {
+                    if (positionsOfNumbers[second] == positionsOfNumbers[first]) {
+                        final long pair = (1L << (first - 1)) | (1L << (second - 1));
+                        boolean eliminated = false;
+                        for (long positions = positionsOfNumbers[first]; positions != 0L; positions &= positions - 1) {
+                            eliminated |= eliminate(unit[Long.numberOfTrailingZeros(positions)], ~pair);
+                        }
+                        if (eliminated) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // returns a bitmask of the positions in unit that have number as a candidate
+    private long getPositionsOf(final int[] unit, final int number) {
+        final long mask = 1L << (number - 1);
+        long positions = 0L;
+        for (int position = 0; position < gridSize; position++) {
+            if ((candidates[unit[position]] & mask) != 0L) {
+                positions |= 1L << position;
+            }
+        }
+        return positions;
+    }
+
+    // X-wing with two rows and their columns if inRows, otherwise with two columns and their rows
+    private boolean applyXWing(final boolean inRows) {
+        final int baseUnit = inRows ? 0 : gridSize, coverUnit = inRows ? gridSize : 0;
+        for (int number = 1; number <= gridSize; number++) {
+            final long mask = 1L << (number - 1);
+            for (int first = 0; first < gridSize; first++) {
+                final long positions = getPositionsOf(units[baseUnit + first], number);
+                if (Long.bitCount(positions) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < gridSize; second++) {
+                    if (getPositionsOf(units[baseUnit + second], number) != positions) {
+                        continue;
+                    }
+                    // position in a row is the column and the other way around
+                    boolean eliminated = false;
+                    for (long remaining = positions; remaining != 0L; remaining &= remaining - 1) {
+                        final int[] cover = units[coverUnit + Long.numberOfTrailingZeros(remaining)];
+                        for (int position = 0; position < gridSize; position++) {
+                            if (position != first && position != second) {
+                                eliminated |= eliminate(cover[position], mask);
+                            }
+                        }
+                    }
+                    if (eliminated) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
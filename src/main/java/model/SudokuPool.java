@@ -0,0 +1,199 @@
+package model;
+
+import model.SudokuGenerator.SudokuAndSolution;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.*;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static util.Checks.requirePositive;
+
+/**
+ * Bounded pool of generated {@link SudokuAndSolution Sudokus and their solutions} for each sub-grid size that is
+ * refilled in the background, so that a new game does not have to wait for the {@link SudokuGenerator}.
+ * <p>The pool for a sub-grid size is refilled after every {@link #take(int) take()} and by
+ * {@link #refill(int) refill()}. The generation runs on daemon threads with the lowest priority, one processor is left
+ * for the user interface. The pooled Sudokus can be {@link #save(Path) saved} and {@link #load(Path) loaded} to keep
+ * them between runs. All methods are thread-safe.</p>
+ *
+ * @author Luca Kellermann
+ */
+public final class SudokuPool {
+
+    // a line of a saved pool is "subGridSize:cells of sudoku:cells of solution", cells are separated by commas
+    private static final String SEPARATOR = ":";
+    private static final String CELL_SEPARATOR = ",";
+
+
+    private final int capacityPerSize;
+    private final ExecutorService executor;
+
+    // ready Sudokus and the number of Sudokus that are being generated, indexed by sub-grid size
+    private final Map<Integer, BlockingQueue<SudokuAndSolution>> pools = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> generatingCounts = new ConcurrentHashMap<>();
+
+
+    /**
+     * Creates an empty SudokuPool that keeps at most {@code capacityPerSize} Sudokus for each sub-grid size.
+     *
+     * @throws IllegalArgumentException if {@code capacityPerSize} is not positive
+     */
+    public SudokuPool(final int capacityPerSize) {
+        this.capacityPerSize = requirePositive(capacityPerSize, "capacityPerSize has to be positive!");
+        final int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+            final Thread thread = new Thread(runnable, "SudokuPool");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+
+    public int getCapacityPerSize() {
+        return capacityPerSize;
+    }
+
+    /**
+     * Returns the number of ready Sudokus with the specified {@code subGridSize}.
+     */
+    public int size(final int subGridSize) {
+        return getPool(subGridSize).size();
+    }
+
+    private BlockingQueue<SudokuAndSolution> getPool(final int subGridSize) {
+        return pools.computeIfAbsent(subGridSize, size -> new ArrayBlockingQueue<>(capacityPerSize));
+    }
+
+
+    /**
+     * Returns a ready Sudoku with the specified {@code subGridSize} and its solution and starts generating a new one
+     * in the background. If there is no ready Sudoku, one is generated on the current thread.
+     *
+     * @throws IllegalArgumentException if {@code subGridSize} is negative or too big
+     */
+    public SudokuAndSolution take(final int subGridSize) {
+        final SudokuAndSolution sudokuAndSolution = getPool(subGridSize).poll();
+        refill(subGridSize);
+        return sudokuAndSolution != null ? sudokuAndSolution : SudokuGenerator.generateSudokuAndSolution(subGridSize);
+    }
+
+    /**
+     * Starts generating Sudokus with the specified {@code subGridSize} in the background until the pool for
+     * {@code subGridSize} is full.
+     *
+     * @throws IllegalArgumentException if {@code subGridSize} is negative or too big
+     */
+    public synchronized void refill(final int subGridSize) {
+        new Sudoku(subGridSize); // fail fast on invalid sizes instead of in the background
+        final BlockingQueue<SudokuAndSolution> pool = getPool(subGridSize);
+
+        // count the Sudokus that are being generated so that a full pool is not refilled again
+        final int missing = capacityPerSize - pool.size() - generatingCounts.getOrDefault(subGridSize, 0);
+        for (int index = 0; index < missing; index++) {
+            generatingCounts.merge(subGridSize, 1, Integer::sum);
+            executor.execute(() -> {
+                try {
+                    pool.offer(SudokuGenerator.generateSudokuAndSolution(subGridSize)); // dropped if pool is full
+                } finally {
+                    generatingCounts.merge(subGridSize, -1, Integer::sum);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Writes all ready Sudokus to {@code file} (replacing its content), one Sudoku per line.
+     *
+     * @throws IOException if {@code file} can't be written
+     */
+    public void save(final Path file) throws IOException {
+        final List<SudokuAndSolution> sudokus = new ArrayList<>();
+        pools.values().forEach(pool -> sudokus.addAll(pool)); // weakly consistent snapshot
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, US_ASCII)) {
+            for (final SudokuAndSolution sudokuAndSolution : sudokus) {
+                writer.write(Integer.toString(sudokuAndSolution.sudoku().getSubGridSize()));
+                writer.write(SEPARATOR);
+                writer.write(toLine(sudokuAndSolution.sudoku()));
+                writer.write(SEPARATOR);
+                writer.write(toLine(sudokuAndSolution.solution()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Puts the Sudokus that were {@link #save(Path) saved} in {@code file} into the pool (as long as there is space).
+     * Lines that don't contain a valid Sudoku with its unique solution are ignored.
+     *
+     * @return the number of Sudokus that were put into the pool
+     * @throws IOException if {@code file} can't be read
+     */
+    public int load(final Path file) throws IOException {
+        int loadedCount = 0;
+        try (final BufferedReader reader = Files.newBufferedReader(file, US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final SudokuAndSolution sudokuAndSolution = fromLine(line);
+                if (sudokuAndSolution != null
+                        && getPool(sudokuAndSolution.sudoku().getSubGridSize()).offer(sudokuAndSolution)) {
+                    loadedCount++;
+                }
+            }
+        }
+        return loadedCount;
+    }
+
+    private static String toLine(final Sudoku sudoku) {
+        final StringJoiner line = new StringJoiner(CELL_SEPARATOR);
+        for (int row = 0; row < sudoku.getGridSize(); row++) {
+            for (int column = 0; column < sudoku.getGridSize(); column++) {
+                line.add(Integer.toString(sudoku.getCell(row, column)));
+            }
+        }
+        return line.toString();
+    }
+
+    // returns null if line is no valid Sudoku with its unique solution
+    private static SudokuAndSolution fromLine(final String line) {
+        final String[] parts = line.split(SEPARATOR);
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            final Sudoku sudoku = new Sudoku(toGrid(Integer.parseInt(parts[0]), parts[1]));
+            final Sudoku solution = new Sudoku(toGrid(sudoku.getSubGridSize(), parts[2]));
+            final Sudoku solvedSudoku = sudoku.getCopy();
+            if (solution.isComplete() && solvedSudoku.solve() == Sudoku.SolveResult.ONE_SOLUTION
+                    && solvedSudoku.equals(solution)) {
+                return new SudokuAndSolution(sudoku, solution);
+            }
+        } catch (final IllegalArgumentException e) {
+            // invalid size or values -> ignore line
+        }
+        return null;
+    }
+
+    private static int[][] toGrid(final int subGridSize, final String cells) {
+        final String[] values = cells.split(CELL_SEPARATOR);
+        final int gridSize = subGridSize * subGridSize;
+        if (subGridSize < 0 || values.length != gridSize * gridSize) {
+            throw new IllegalArgumentException("Wrong number of values!");
+        }
+        final int[][] grid = new int[gridSize][gridSize];
+        for (int index = 0; index < values.length; index++) {
+            grid[index / gridSize][index % gridSize] = Integer.parseInt(values[index]);
+        }
+        return grid;
+    }
+}
@@ -5,7 +5,9 @@ import model.AbstractPuzzle.Cell;
 import model.AbstractPuzzle.SetCellResult;
 import model.Sudoku;
 import model.SudokuGenerator;
+import model.SudokuPool;
 import util.GameMode;
+import util.UserPreferencesService;
 import view.Theme;
 import view.ingame.CustomButton;
 import view.ingame.InGameViewScaffold;
@@ -14,8 +16,13 @@ import view.ingame.CellPanel;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static util.Strings.*;
@@ -25,8 +32,14 @@ import static util.Strings.*;
  */
 public final class PlayPresenter implements Presenter {
 
-    private final AbstractPuzzle sudoku;
-    private final AbstractPuzzle solution;
+    // Sudokus are generated in the background so that a new game can start without waiting for the generator,
+    // the ready Sudokus are kept between runs (see UserPreferencesService.readSudokuPoolFile())
+    private static final SudokuPool SUDOKU_POOL = new SudokuPool(2);
+    private static boolean isSudokuPoolPrepared;
+
+    // null until the Sudoku was taken from the pool, which might have to generate it first
+    private AbstractPuzzle sudoku;
+    private AbstractPuzzle solution;
     private final InGameViewScaffold inGameViewScaffold;
 
     private final int tipLimit;
@@ -47,28 +60,95 @@ public final class PlayPresenter implements Presenter {
     public PlayPresenter(int subGridSize, Theme theme, boolean autoStepForward, boolean highlighting, int tipLimit) {
         noteModeActivated = false;
 
-        SudokuGenerator.SudokuAndSolution sudokuAndSolution = SudokuGenerator.generateSudokuAndSolution(subGridSize);
-        sudoku = sudokuAndSolution.sudoku();
-        solution = sudokuAndSolution.solution();
-
         inGameViewScaffold = new InGameViewScaffold(subGridSize, this::handleButtonListenerEvent, PLAY, theme, highlighting, autoStepForward, GameMode.SUDOKU_PLAY, tipLimit, this);
 
         inGameViewScaffold.addKeyListener(new KeyInputListener(this, autoStepForward));
 
-        this.setPredefinedCells();
-
         this.tipLimit = tipLimit;
         this.tipsUsed = 0;
         inGameViewScaffold.setRemainingTips(tipLimit);
 
-        startTime = ZonedDateTime.now().toInstant().toEpochMilli();
-        lastUpdateTime = 0;
-
         timer = new Timer(0, e -> setTimer());
         timer.setInitialDelay(1000);
-        timer.start();
 
         solved = false;
+
+        // the pool generates the Sudoku on the current thread if none is ready (e.g. when starting games quickly one
+        // after another), which can take seconds for big Sudokus -> don't block the event dispatch thread
+        inGameViewScaffold.setInfoText(GENERATING_SUDOKU);
+        new SwingWorker<SudokuGenerator.SudokuAndSolution, Void>() {
+            @Override
+            protected SudokuGenerator.SudokuAndSolution doInBackground() {
+                return SUDOKU_POOL.take(subGridSize);
+            }
+
+            @Override
+            protected void done() {
+                if (!inGameViewScaffold.isDisplayable()) {
+                    return; // the window was closed while the Sudoku was generated
+                }
+                try {
+                    startGame(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(inGameViewScaffold, SUDOKU_COULD_NOT_BE_GENERATED, SUDOKUH, JOptionPane.ERROR_MESSAGE);
+                    inGameViewScaffold.goToMainMenu();
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows the generated Sudoku and starts the timer
+     */
+    private void startGame(SudokuGenerator.SudokuAndSolution sudokuAndSolution) {
+        sudoku = sudokuAndSolution.sudoku();
+        solution = sudokuAndSolution.solution();
+        this.setPredefinedCells();
+
+        startTime = ZonedDateTime.now().toInstant().toEpochMilli();
+        lastUpdateTime = 0;
+        inGameViewScaffold.setInfoText(this.getTimerText(0));
+        timer.start();
+    }
+
+    /**
+     * Starts generating Sudokus with all sub-grid sizes from {@code minSubGridSize} to {@code maxSubGridSize} in the
+     * background (after loading the Sudokus that were left over from the last run) and saves the ready Sudokus when
+     * the application exits, if the user keeps them in a {@link UserPreferencesService#readSudokuPoolFile() file}.
+     */
+    public static synchronized void prepareSudokus(int minSubGridSize, int maxSubGridSize) {
+        if (isSudokuPoolPrepared) {
+            return;
+        }
+        isSudokuPoolPrepared = true;
+        final Optional<Path> sudokuPoolFile = UserPreferencesService.readSudokuPoolFile();
+
+        final Thread preparation = new Thread(() -> {
+            try {
+                if (sudokuPoolFile.isPresent() && Files.exists(sudokuPoolFile.get())) {
+                    SUDOKU_POOL.load(sudokuPoolFile.get());
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                // not a reason to stop, the Sudokus are generated again and the file is overwritten on exit
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, SAVED_SUDOKUS_COULD_NOT_BE_LOADED, SUDOKUH, JOptionPane.WARNING_MESSAGE));
+            }
+            for (int subGridSize = minSubGridSize; subGridSize <= maxSubGridSize; subGridSize++) {
+                SUDOKU_POOL.refill(subGridSize);
+            }
+        }, "SudokuPoolPreparation");
+        preparation.setDaemon(true);
+        preparation.setPriority(Thread.MIN_PRIORITY);
+        preparation.start();
+
+        sudokuPoolFile.ifPresent(file -> Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                SUDOKU_POOL.save(file);
+            } catch (IOException e) {
+                e.printStackTrace(); // all windows are closed already
+            }
+        })));
     }
 
     /**
@@ -89,7 +169,8 @@ public final class PlayPresenter implements Presenter {
      * If sudoku is solved right, print a text to the gui
      */
     private boolean verifySolution() {
-        if (sudoku.equals(solution)) {
+        // generated puzzles have a unique solution -> every complete grid without conflicts is the solution
+        if (sudoku.isComplete()) {
             timer.stop();
             long currentTime = ZonedDateTime.now().toInstant().toEpochMilli();
             long timeDif = currentTime - startTime;
@@ -113,7 +194,7 @@ public final class PlayPresenter implements Presenter {
      */
     @Override
     public void handleButton(CustomButton button) {
-        if (solved) return;
+        if (solved || sudoku == null) return; // sudoku is null while it is generated
         CellPanel clickedCell = inGameViewScaffold.getClicked();
 
         switch (button.getType()) {
@@ -217,11 +298,13 @@ public final class PlayPresenter implements Presenter {
      * Saves current time to add later when the timer is resumed
      */
     public void pauseTimer() {
+        if (sudoku == null) return; // timer was not started yet
         pausedTime = pausedTime + lastUpdateTime - startTime;
         timer.stop();
     }
 
     public void resumeTimer() {
+        if (sudoku == null) return; // timer is started when the Sudoku is ready
         timer.start();
         startTime = ZonedDateTime.now().toInstant().toEpochMilli();
     }
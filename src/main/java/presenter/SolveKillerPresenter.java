@@ -66,10 +66,11 @@ public final class SolveKillerPresenter extends SolvePresenter {
                 }
             }
             case SOLVE -> {
-                AbstractPuzzle.SolveResult solveResult = sudoku.solve();
+                AbstractPuzzle.SolveResult solveResult = sudoku.solve(SOLVE_TIMEOUT);
                 switch (solveResult) {
                     case NO_SOLUTION -> inGameViewScaffold.setInfoText(THIS_PUZZLE_CANNOT_BE_SOLVED, Color.red);
                     case NOT_IN_VALID_STATE_FOR_SOLVE -> inGameViewScaffold.setInfoText(THIS_PUZZLE_CANNOT_BE_SOLVED_YET, Color.red);
+                    case TIMED_OUT, CANCELLED -> inGameViewScaffold.setInfoText(THIS_PUZZLE_COULD_NOT_BE_SOLVED_IN_TIME, Color.red);
                     case ONE_SOLUTION -> {
                         inGameViewScaffold.setInfoText(THE_PUZZLE_WAS_SOLVED_SUCCESSFULLY, Color.green);
                         for (int row = 0; row < sudoku.getGridSize(); row++) {
@@ -155,7 +156,7 @@ public final class SolveKillerPresenter extends SolvePresenter {
             if (sum == -1) {
                 inGameViewScaffold.setInfoText(FAULTY_SUM, Color.red);
             } else {
-                final Set<Cell> cells = group.stream().map(it -> new Cell(it.getRow(), it.getColumn())).collect(toSet());
+                final Set<Cell> cells = group.stream().map(it -> Cell.of(it.getRow(), it.getColumn())).collect(toSet());
                 final GroupsUpdateResult result = ((Killer) sudoku).putCellsIntoNewGroup(cells, sum);
 
                 if (result.isSuccess()) {
@@ -4,6 +4,7 @@ import model.AbstractPuzzle;
 import model.AbstractPuzzle.Cell;
 import model.AbstractPuzzle.SetCellResult;
 import model.Killer;
+import model.SolveCache;
 import model.Str8ts;
 import model.Sudoku;
 import util.GameMode;
@@ -14,6 +15,7 @@ import view.ingame.CellPanel;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.Duration;
 import java.util.Set;
 
 import static util.Strings.*;
@@ -23,6 +25,12 @@ import static util.Strings.*;
  */
 public abstract class SolvePresenter implements Presenter {
 
+    // solving is done on the event dispatch thread, so it must not block the UI for too long
+    protected static final Duration SOLVE_TIMEOUT = Duration.ofSeconds(10);
+
+    // pressing solve again for the same state (e.g. after deleting and re-entering a number) is answered instantly
+    private static final SolveCache SOLVE_CACHE = new SolveCache(64);
+
     protected final AbstractPuzzle sudoku;
     protected InGameViewScaffold inGameViewScaffold;
 
@@ -87,10 +95,11 @@ public abstract class SolvePresenter implements Presenter {
                 }
             }
             case SOLVE -> {
-                AbstractPuzzle.SolveResult solveResult = sudoku.solve();
+                AbstractPuzzle.SolveResult solveResult = SOLVE_CACHE.solve(sudoku, SOLVE_TIMEOUT);
                 switch (solveResult) {
                     case NO_SOLUTION -> inGameViewScaffold.setInfoText(THIS_SUDOKU_CANNOT_BE_SOLVED, Color.red);
                     case NOT_IN_VALID_STATE_FOR_SOLVE -> inGameViewScaffold.setInfoText(THIS_SUDOKU_CANNOT_BE_SOLVED_YET, Color.red);
+                    case TIMED_OUT, CANCELLED -> inGameViewScaffold.setInfoText(THIS_SUDOKU_COULD_NOT_BE_SOLVED_IN_TIME, Color.red);
                     case ONE_SOLUTION -> {
                         inGameViewScaffold.setInfoText(THE_SUDOKU_WAS_SOLVED_SUCCESSFULLY, Color.green);
                         for (int row = 0; row < sudoku.getGridSize(); row++) {
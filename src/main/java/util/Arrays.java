@@ -10,20 +10,6 @@ import static java.util.Arrays.copyOf;
  */
 public final class Arrays {
 
-    public static int[][] deepCopyOf(final int[][] original) {
-        final int[][] copy = new int[original.length][];
-
-        for (int i = 0; i < original.length; i++) {
-            final int[] subArray = original[i];
-            if (subArray == null) {
-                copy[i] = null;
-            } else {
-                copy[i] = copyOf(subArray, subArray.length);
-            }
-        }
-        return copy;
-    }
-
     @SuppressWarnings("unchecked")
     public static <T> T[][] twoLevelCopyOf(final T[][] original) {
         final Class<? extends Object[][]> originalClass = original.getClass();
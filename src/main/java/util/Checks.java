@@ -14,5 +14,12 @@ public final class Checks {
         return number;
     }
 
+    public static int requirePositive(final int number, final String message) {
+        if (number <= 0) {
+            throw new IllegalArgumentException(message);
+        }
+        return number;
+    }
+
     private Checks() {}
 }
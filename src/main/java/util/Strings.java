@@ -58,12 +58,21 @@ public final class Strings {
 
     public static final String PLAY_TIME = isGerman ? "Spielzeit" : "Play time";
 
+    public static final String GENERATING_SUDOKU = isGerman ? "Sudoku wird erstellt..." : "Generating Sudoku...";
+
+    public static final String SUDOKU_COULD_NOT_BE_GENERATED = isGerman ? "Das Sudoku konnte nicht erstellt werden!" : "The Sudoku could not be generated!";
+
+    public static final String SAVED_SUDOKUS_COULD_NOT_BE_LOADED = isGerman ? "Die gespeicherten Sudokus konnten nicht geladen werden, es werden neue erstellt." : "The saved Sudokus could not be loaded, new ones are generated.";
+
     public static final String THIS_PUZZLE_CANNOT_BE_SOLVED = isGerman ? "Dieses R\u00e4tsel kann nicht gel\u00f6st werden!" : "This puzzle cannot be solved!";
     public static final String THIS_SUDOKU_CANNOT_BE_SOLVED = isGerman ? "Dieses Sudoku kann nicht gel\u00f6st werden!" : "This Sudoku cannot be solved!";
 
     public static final String THIS_PUZZLE_CANNOT_BE_SOLVED_YET = isGerman ? "Dieses R\u00e4tsel kann noch nicht gel\u00f6st werden!" : "This puzzle cannot be solved yet!";
     public static final String THIS_SUDOKU_CANNOT_BE_SOLVED_YET = isGerman ? "Dieses Sudoku kann noch nicht gel\u00f6st werden!" : "This Sudoku cannot be solved yet!";
 
+    public static final String THIS_PUZZLE_COULD_NOT_BE_SOLVED_IN_TIME = isGerman ? "Dieses R\u00e4tsel konnte nicht rechtzeitig gel\u00f6st werden!" : "This puzzle could not be solved in time!";
+    public static final String THIS_SUDOKU_COULD_NOT_BE_SOLVED_IN_TIME = isGerman ? "Dieses Sudoku konnte nicht rechtzeitig gel\u00f6st werden!" : "This Sudoku could not be solved in time!";
+
     public static final String THE_PUZZLE_WAS_SOLVED_SUCCESSFULLY = isGerman ? "Das R\u00e4tsel wurde erfolgreich gel\u00f6st!" : "The puzzle was solved successfully!";
     public static final String THE_SUDOKU_WAS_SOLVED_SUCCESSFULLY = isGerman ? "Das Sudoku wurde erfolgreich gel\u00f6st!" : "The Sudoku was solved successfully!";
 
@@ -2,6 +2,9 @@ package util;
 
 import view.Theme;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.prefs.Preferences;
 
 import static java.util.Arrays.stream;
@@ -41,5 +44,21 @@ public final class UserPreferencesService {
         prefs.putInt("tipLimit", tipLimit);
     }
 
+    /**
+     * Reads the file the pre-generated Sudokus are kept in between runs and returns it. This is
+     * {@code .sudokuh_sudokus} in the home directory unless the preference {@code sudokuPoolFile} is set. If it is set
+     * to an empty (or invalid) path, the Sudokus are not kept and an empty {@link Optional} is returned.
+     */
+    public static Optional<Path> readSudokuPoolFile() {
+        Preferences prefs = Preferences.userNodeForPackage(UserPreferencesService.class);
+        String file = prefs.get("sudokuPoolFile", Path.of(System.getProperty("user.home"), ".sudokuh_sudokus").toString());
+        try {
+            return file.isBlank() ? Optional.empty() : Optional.of(Path.of(file));
+        } catch (InvalidPathException e) {
+            e.printStackTrace();
+            return Optional.empty();
+        }
+    }
+
     private UserPreferencesService() {}
 }
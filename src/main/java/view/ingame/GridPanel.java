@@ -1,6 +1,7 @@
 package view.ingame;
 
 import model.AbstractPuzzle.Cell;
+import model.CellSet;
 import model.Str8ts;
 import util.GameMode;
 import view.Theme;
@@ -12,7 +13,6 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Set;
 
 import static model.Str8ts.Color.BLACK;
@@ -51,7 +51,7 @@ public final class GridPanel extends JPanel {
     /**
      * List of conflicting cells.
      */
-    private Set<Cell> conflicts;
+    private final Set<Cell> conflicts;
 
     /**
      * The size of the grid.
@@ -86,7 +86,7 @@ public final class GridPanel extends JPanel {
 
         this.gamemode = gamemode;
 
-        conflicts = new HashSet<>();
+        conflicts = new CellSet(subGridSize * subGridSize);
 
         inputs = new ArrayList<>();
 
@@ -490,7 +490,7 @@ public final class GridPanel extends JPanel {
                         cells.get(c.row()).get(c.column()).setCellTextColor(theme.primaryTextColor);
                     }
                 }
-                conflicts = new HashSet<>();
+                conflicts.clear();
                 inputs.add(clicked);
                 clicked.setCellText(input);
             }
@@ -513,7 +513,7 @@ public final class GridPanel extends JPanel {
                         cells.get(c.row()).get(c.column()).setCellTextColor(theme.primaryTextColor);
                     }
                 }
-                conflicts = new HashSet<>();
+                conflicts.clear();
                 clicked.setCellText(input);
             }
         }
@@ -5,6 +5,7 @@ import model.Str8ts;
 import presenter.PlayPresenter;
 import util.GameMode;
 import view.Theme;
+import view.main_menu.MainMenu;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -278,6 +279,19 @@ public final class InGameViewScaffold extends JFrame {
         return gridPanel.changeAndGetColor();
     }
 
+    /**
+     * Closes this window and opens the main menu
+     */
+    public void goToMainMenu() {
+        dispose();
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (UnsupportedLookAndFeelException | ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            e.printStackTrace();
+        }
+        new MainMenu();
+    }
+
     /**
      * @return the playPresenter for PopUpWindow
      */
@@ -1,7 +1,5 @@
 package view.ingame;
 
-import view.main_menu.MainMenu;
-
 import javax.swing.*;
 
 import static javax.swing.JOptionPane.*;
@@ -23,13 +21,7 @@ public final class PopUpWindow {
 
         // Button Events
         if (selectedValue == YES_OPTION) {
-            frame.dispose();
-            try {
-                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-            } catch (UnsupportedLookAndFeelException | ClassNotFoundException | InstantiationException | IllegalAccessException e) {
-                e.printStackTrace();
-            }
-            new MainMenu();
+            frame.goToMainMenu();
         } else if ((selectedValue == NO_OPTION || selectedValue == CLOSED_OPTION) && frame.getPlayPresenter() != null) {
             frame.getPlayPresenter().resumeTimer();
         }
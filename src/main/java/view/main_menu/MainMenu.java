@@ -83,6 +83,8 @@ public final class MainMenu extends JFrame {
         tipLimit = preferences.tipLimit();
         tipSlider = new TipChooseSlider(tipLimit);
 
+        // generate Sudokus for all selectable sizes while the user is still in the menu
+        PlayPresenter.prepareSudokus(sizeSlider.getMinimum(), sizeSlider.getMaximum());
 
         setSize(new Dimension(350, 660));
         setDefaultCloseOperation(EXIT_ON_CLOSE);
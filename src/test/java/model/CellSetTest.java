@@ -0,0 +1,90 @@
+package model;
+
+import model.AbstractPuzzle.Cell;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Luca Kellermann
+ */
+@DisplayName("CellSet")
+class CellSetTest {
+
+    @ParameterizedTest(name = "should behave like a HashSet for grid size {0}")
+    @ValueSource(ints = {1, 4, 9, 16, 64})
+    @DisplayName("should behave like a HashSet for any grid size")
+    void shouldBehaveLikeAHashSetForAnyGridSize(final int gridSize) {
+        final CellSet cellSet = new CellSet(gridSize);
+        final Set<Cell> hashSet = new HashSet<>();
+
+        for (int index = 0; index < gridSize * gridSize; index += 3) {
+            final Cell cell = new Cell(index / gridSize, index % gridSize);
+            assertEquals(hashSet.add(cell), cellSet.add(cell));
+            assertEquals(hashSet.add(cell), cellSet.add(cell)); // already contained
+        }
+        assertEquals(hashSet, cellSet);
+        assertEquals(cellSet, hashSet);
+        assertEquals(hashSet.hashCode(), cellSet.hashCode());
+
+        final Cell last = new Cell(gridSize - 1, gridSize - 1);
+        assertEquals(hashSet.remove(last), cellSet.remove(last));
+        assertEquals(hashSet.size(), cellSet.size());
+        assertFalse(cellSet.contains(last));
+        assertFalse(cellSet.contains(new Cell(gridSize, 0))); // outside of grid
+    }
+
+    @Test
+    @DisplayName("should combine sets with same grid size")
+    void shouldCombineSetsWithSameGridSize() {
+        final CellSet first = new CellSet(9, List.of(Cell.of(0, 0), Cell.of(4, 4), Cell.of(8, 8)));
+        final CellSet second = new CellSet(9, List.of(Cell.of(4, 4), Cell.of(8, 8), Cell.of(8, 7)));
+
+        final CellSet union = new CellSet(9, first);
+        assertTrue(union.addAll(second));
+        assertEquals(Set.of(Cell.of(0, 0), Cell.of(4, 4), Cell.of(8, 8), Cell.of(8, 7)), union);
+
+        final CellSet intersection = new CellSet(9, first);
+        assertTrue(intersection.retainAll(second));
+        assertEquals(Set.of(Cell.of(4, 4), Cell.of(8, 8)), intersection);
+        assertTrue(first.containsAll(intersection));
+
+        final CellSet difference = new CellSet(9, first);
+        assertTrue(difference.removeAll(second));
+        assertFalse(difference.removeAll(second));
+        assertEquals(Set.of(Cell.of(0, 0)), difference);
+    }
+
+    @Test
+    @DisplayName("should iterate in row-major order and remove with iterator")
+    void shouldIterateInRowMajorOrderAndRemoveWithIterator() {
+        final CellSet cellSet = new CellSet(9, Set.of(Cell.of(8, 8), Cell.of(0, 5), Cell.of(7, 0)));
+
+        final Iterator<Cell> iterator = cellSet.iterator();
+        assertSame(Cell.of(0, 5), iterator.next());
+        assertSame(Cell.of(7, 0), iterator.next()); // first cell in second word
+        iterator.remove();
+        assertSame(Cell.of(8, 8), iterator.next());
+        assertFalse(iterator.hasNext());
+
+        assertEquals(Set.of(Cell.of(0, 5), Cell.of(8, 8)), cellSet);
+    }
+
+    @Test
+    @DisplayName("should not add cells outside of grid")
+    void shouldNotAddCellsOutsideOfGrid() {
+        final CellSet cellSet = new CellSet(9);
+        assertThrows(IllegalArgumentException.class, () -> cellSet.add(new Cell(9, 0)));
+        assertThrows(IllegalArgumentException.class, () -> cellSet.add(new Cell(0, -1)));
+        assertThrows(NullPointerException.class, () -> cellSet.add(null));
+        assertTrue(cellSet.isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Luca Kellermann
+ */
+@DisplayName("KillerGenerator")
+class KillerGeneratorTest {
+
+    @ParameterizedTest(name = "should generate a Killer which has only one solution (with givens: {0})")
+    @ValueSource(booleans = {false, true})
+    @DisplayName("should generate a Killer which has only one solution")
+    void shouldGenerateAKillerWhichHasOnlyOneSolution(final boolean withGivens) {
+        for (long seed = 0L; seed < 5L; seed++) {
+            final KillerGenerator.KillerAndSolution killerAndSolution =
+                    KillerGenerator.generateKillerAndSolution(seed, withGivens);
+            final Killer killer = killerAndSolution.killer();
+
+            assertEquals(killerAndSolution.solution().getGroups(), killer.getGroups());
+            assertTrue(killerAndSolution.solution().isComplete());
+            for (final Killer.Group group : killer.getGroups()) {
+                assertTrue(group.cells().size() <= Killer.Group.MAX_CELLS);
+            }
+
+            final Killer solvedKiller = killer.getCopy();
+            assertSame(Killer.SolveResult.ONE_SOLUTION, solvedKiller.solve());
+            assertEquals(killerAndSolution.solution(), solvedKiller);
+        }
+    }
+
+    @ParameterizedTest(name = "should generate few cages with one cell (with givens: {0})")
+    @ValueSource(booleans = {false, true})
+    @DisplayName("should generate few cages with one cell")
+    void shouldGenerateFewCagesWithOneCell(final boolean withGivens) {
+        // without merging, there are about 8 per Killer for these seeds
+        int singleCellCageCount = 0;
+        for (long seed = 0L; seed < 10L; seed++) {
+            final Killer killer = KillerGenerator.generateKillerAndSolution(seed, withGivens).killer();
+            int count = 0;
+            for (final Killer.Group group : killer.getGroups()) {
+                if (group.cells().size() == 1) {
+                    count++;
+                }
+            }
+            assertTrue(count <= 10, count + " cages with one cell for seed " + seed);
+            singleCellCageCount += count;
+        }
+        assertTrue(singleCellCageCount <= 45, singleCellCageCount + " cages with one cell");
+    }
+
+    @Test
+    @DisplayName("should generate a Killer without givens")
+    void shouldGenerateAKillerWithoutGivens() {
+        final Killer killer = KillerGenerator.generateKillerAndSolution().killer();
+        for (int row = 0; row < killer.getGridSize(); row++) {
+            for (int column = 0; column < killer.getGridSize(); column++) {
+                assertEquals(Killer.EMPTY_CELL, killer.getCell(row, column));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should generate the same Killer for the same seed")
+    void shouldGenerateTheSameKillerForTheSameSeed() {
+        final KillerGenerator.KillerAndSolution killerAndSolution = KillerGenerator.generateKillerAndSolution(42L);
+
+        assertEquals(killerAndSolution, KillerGenerator.generateKillerAndSolution(42L));
+        assertNotEquals(killerAndSolution, KillerGenerator.generateKillerAndSolution(43L));
+    }
+}
@@ -1,13 +1,16 @@
 package model;
 
 import model.AbstractPuzzle.Cell;
+import model.Killer.GroupsUpdateResult.FailureReason;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -155,6 +158,146 @@ class KillerTest {
         assertEquals(solution, killer);
     }
 
+    @ParameterizedTest(name = "should be solved with {0}")
+    @EnumSource(Killer.BranchingHeuristic.class)
+    @DisplayName("should be solved with any branching heuristic")
+    void shouldBeSolvedWithAnyBranchingHeuristic(final Killer.BranchingHeuristic branchingHeuristic) {
+        killer.setBranchingHeuristic(branchingHeuristic);
+        assertSame(Killer.SolveResult.ONE_SOLUTION, killer.solve());
+        assertEquals(solution, killer);
+    }
+
+    @Test
+    @DisplayName("should have exactly one solution")
+    void shouldHaveExactlyOneSolution() {
+        assertEquals(1, killer.countSolutions(2));
+        assertTrue(deepEquals(grid, killer.getGrid())); // state did not change
+    }
+
+    @Test
+    @DisplayName("should keep groups of other cells when removing group")
+    void shouldKeepGroupsOfOtherCellsWhenRemovingGroup() {
+        final Killer emptyKiller = new Killer();
+        final Killer.Group first = new Killer.Group(Set.of(new Cell(0, 0), new Cell(0, 1)), 3);
+        final Killer.Group second = new Killer.Group(Set.of(new Cell(1, 0)), 5);
+        final Killer.Group third = new Killer.Group(Set.of(new Cell(2, 0), new Cell(2, 1), new Cell(3, 1)), 17);
+        for (final Killer.Group group : List.of(first, second, third)) {
+            assertTrue(emptyKiller.putCellsIntoNewGroup(group.cells(), group.sum()).isSuccess());
+        }
+
+        assertTrue(emptyKiller.removeGroup(first).isSuccess());
+        assertFalse(emptyKiller.removeGroup(first).isSuccess()); // already removed
+        assertNull(emptyKiller.getGroupForCell(0, 0));
+        assertEquals(second, emptyKiller.getGroupForCell(1, 0));
+        assertEquals(third, emptyKiller.getGroupForCell(2, 1));
+        assertEquals(Set.of(second, third), emptyKiller.getGroups());
+
+        // (2,0) and (3,1) are not in the same row, column or sub-grid
+        assertTrue(emptyKiller.setCell(2, 0, 8).isSuccess());
+        assertFalse(emptyKiller.setCell(3, 1, 8).isSuccess()); // duplicate in group
+        assertFalse(emptyKiller.setCell(3, 1, 9).isSuccess()); // sum reached before group is full
+        assertTrue(emptyKiller.setCell(3, 1, 1).isSuccess());
+        emptyKiller.resetCell(2, 0);
+        assertTrue(emptyKiller.setCell(2, 0, 9).isSuccess());
+        assertTrue(emptyKiller.setCell(2, 1, 7).isSuccess()); // 9 + 7 + 1 = 17
+    }
+
+    @Test
+    @DisplayName("should only put connected cells into group")
+    void shouldOnlyPutConnectedCellsIntoGroup() {
+        final Killer emptyKiller = new Killer();
+        final FailureReason notConnected = FailureReason.GROUP_CELLS_ARE_NOT_CONNECTED;
+
+        // cells at the end of a row are not connected to cells at the start of the next row
+        assertEquals(notConnected, emptyKiller.putCellsIntoNewGroup(Set.of(new Cell(0, 8), new Cell(1, 0)), 3)
+                .failureReason());
+        assertEquals(notConnected, emptyKiller.putCellsIntoNewGroup(Set.of(new Cell(7, 0), new Cell(6, 8)), 3)
+                .failureReason());
+        assertEquals(notConnected, emptyKiller.putCellsIntoNewGroup(Set.of(new Cell(0, 0), new Cell(1, 1)), 3)
+                .failureReason()); // diagonal
+
+        // (7, 0) and (7, 1) are stored in different words of the bitboard
+        assertTrue(emptyKiller.putCellsIntoNewGroup(
+                Set.of(new Cell(6, 8), new Cell(7, 8), new Cell(7, 7), new Cell(8, 7), new Cell(8, 6)), 15)
+                .isSuccess());
+        assertTrue(emptyKiller.putCellsIntoNewGroup(
+                Set.of(new Cell(6, 0), new Cell(7, 0), new Cell(7, 1), new Cell(8, 1)), 10).isSuccess());
+
+        // old group would be split into (6, 0) and (8, 1)
+        assertEquals(notConnected, emptyKiller.putCellsIntoNewGroup(Set.of(new Cell(7, 0), new Cell(7, 1)), 3)
+                .failureReason());
+        assertTrue(emptyKiller.putCellsIntoNewGroup(Set.of(new Cell(8, 1)), 4).isSuccess());
+    }
+
+    @Test
+    @DisplayName("should restrict candidates with sum of innies")
+    void shouldRestrictCandidatesWithSumOfInnies() {
+        // row 0 has three groups inside and (0, 8) is the only innie, the other rows are split into vertical pairs
+        final Set<Killer.Group> groups = new HashSet<>(Set.of(
+                new Killer.Group(Set.of(new Cell(0, 0), new Cell(0, 1), new Cell(0, 2)), 8),
+                new Killer.Group(Set.of(new Cell(0, 3), new Cell(0, 4), new Cell(0, 5)), 17),
+                new Killer.Group(Set.of(new Cell(0, 6), new Cell(0, 7)), 12),
+                new Killer.Group(Set.of(new Cell(0, 8), new Cell(1, 8)), 12),
+                new Killer.Group(Set.of(new Cell(8, 8)), 9)
+        ));
+        for (int column = 0; column < Killer.GRID_SIZE; column++) {
+            for (int row = column == Killer.GRID_SIZE - 1 ? 2 : 1; row < Killer.GRID_SIZE - 1; row += 2) {
+                final int sum = solutionGrid[row][column] + solutionGrid[row + 1][column];
+                groups.add(new Killer.Group(Set.of(new Cell(row, column), new Cell(row + 1, column)), sum));
+            }
+        }
+        final Killer killerWithInnie = new Killer(grid, groups);
+
+        killerWithInnie.prepareForSolve();
+        // the group alone would allow 3, 4, 5, 7, 8 and 9
+        assertEquals(Killer.maskOf(8), killerWithInnie.getCandidatesForSolve(0, 8));
+
+        assertSame(Killer.SolveResult.ONE_SOLUTION, killerWithInnie.solve());
+        assertTrue(deepEquals(solutionGrid, killerWithInnie.getGrid()));
+    }
+
+    @Test
+    @DisplayName("should have all combinations of distinct numbers for sum")
+    void shouldHaveAllCombinationsOfDistinctNumbersForSum() {
+        assertArrayEquals(new long[]{0b11L}, Killer.getCombinations(2, 3)); // 1 + 2
+        assertArrayEquals(new long[]{0b110000000L}, Killer.getCombinations(2, 17)); // 8 + 9
+        assertArrayEquals(new long[]{0b111111111L}, Killer.getCombinations(Killer.Group.MAX_CELLS, Killer.Group.MAX_SUM));
+        assertEquals(0, Killer.getCombinations(2, 18).length); // would need 9 + 9
+        assertEquals(8, Killer.getCombinations(3, 15).length);
+    }
+
+    @Test
+    @DisplayName("should be solved in parallel")
+    void shouldBeSolvedInParallel() {
+        assertSame(Killer.SolveResult.ONE_SOLUTION, killer.solveInParallel(4));
+        assertEquals(solution, killer);
+        final Killer.SolveStatistics statistics = killer.getLastSolveStatistics();
+        assertEquals(killer.getNumberOfCells(), statistics.cellsFilledByPropagation() + statistics.cellsFilledBySearch());
+    }
+
+    @Test
+    @DisplayName("should count every filled cell in solve statistics")
+    void shouldCountEveryFilledCellInSolveStatistics() {
+        assertSame(Killer.SolveResult.ONE_SOLUTION, killer.solve());
+        final Killer.SolveStatistics statistics = killer.getLastSolveStatistics();
+        assertEquals(killer.getNumberOfCells(), statistics.cellsFilledByPropagation() + statistics.cellsFilledBySearch());
+    }
+
+    @Test
+    @DisplayName("should have no solutions when not in valid state for solve")
+    void shouldHaveNoSolutionsWhenNotInValidStateForSolve() {
+        assertEquals(0, new Killer().countSolutions(2)); // no groups
+    }
+
+    @Test
+    @DisplayName("should not be solved with dancing links")
+    void shouldNotBeSolvedWithDancingLinks() {
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> killer.solve(Killer.SolveAlgorithm.DANCING_LINKS)
+        );
+    }
+
     @ParameterizedTest(name = "cell ({0},{1}) should have value between 1 and Killer.GRID_SIZE after successful solve")
     @MethodSource("allCellRowsAndColumnsForGrid")
     @DisplayName("any cell should have value between 1 and Killer.GRID_SIZE after successful solve")
@@ -0,0 +1,72 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Luca Kellermann
+ */
+@DisplayName("SolveCache")
+class SolveCacheTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+
+    @Test
+    @DisplayName("should return cached result for same state")
+    void shouldReturnCachedResultForSameState() {
+        final SolveCache cache = new SolveCache(4);
+        final Sudoku solution = new Sudoku(3, new Random(42L));
+        final Sudoku sudoku = solution.getCopy();
+        sudoku.resetCell(0, 0);
+        sudoku.resetCell(4, 4);
+        final Sudoku sameSudoku = sudoku.getCopy();
+
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, cache.solve(sudoku, TIMEOUT));
+        assertEquals(solution, sudoku);
+        assertEquals(1, cache.size());
+
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, cache.solve(sameSudoku, TIMEOUT));
+        assertEquals(solution, sameSudoku); // solution was applied from cache
+        assertEquals(1, cache.size());
+
+        final Sudoku unsolvable = new Sudoku(3);
+        for (int column = 0; column < 8; column++) {
+            unsolvable.setCell(0, column, column + 1);
+        }
+        unsolvable.setCell(1, 8, 9); // (0, 8) can only be 9
+        assertSame(Sudoku.SolveResult.NO_SOLUTION, cache.solve(unsolvable, TIMEOUT));
+        assertSame(Sudoku.SolveResult.NO_SOLUTION, cache.solve(unsolvable.getCopy(), TIMEOUT));
+        assertEquals(2, cache.size());
+    }
+
+    @ParameterizedTest(name = "should keep at most {0} results")
+    @ValueSource(ints = {1, 2, 3})
+    @DisplayName("should keep at most capacity results")
+    void shouldKeepAtMostCapacityResults(final int capacity) {
+        final SolveCache cache = new SolveCache(capacity);
+        for (int number = 1; number <= Sudoku.DEFAULT_GRID_SIZE; number++) {
+            final Sudoku sudoku = new Sudoku();
+            sudoku.setCell(0, 0, number);
+            assertSame(Sudoku.SolveResult.MULTIPLE_SOLUTIONS, cache.solve(sudoku, TIMEOUT));
+            assertEquals(number, sudoku.getCell(0, 0));
+            assertEquals(Math.min(number, capacity), cache.size());
+        }
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("should not be created with invalid capacity")
+    void shouldNotBeCreatedWithInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SolveCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new SolveCache(-1));
+    }
+}
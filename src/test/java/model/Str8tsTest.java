@@ -5,10 +5,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import static java.util.Arrays.deepEquals;
 import static java.util.Arrays.fill;
@@ -229,6 +231,65 @@ class Str8tsTest {
         assertSame(Str8ts.Color.WHITE, gentleStr8ts.getColor(3, 3));
     }
 
+    @Test
+    @DisplayName("should check straights of compartments after color change")
+    void shouldCheckStraightsOfCompartmentsAfterColorChange() {
+        final Str8ts str8ts = new Str8ts();
+        assertTrue(str8ts.setColor(0, 2, Str8ts.Color.BLACK)); // (0, 0) and (0, 1) are a compartment now
+        assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(0, 0, 1));
+
+        final Str8ts.SetCellResult result = str8ts.setCell(0, 1, 3); // 1 and 3 are no straight
+        assertFalse(result.isSuccess());
+        assertEquals(Set.of(new Str8ts.Cell(0, 0)), result.conflictingCells());
+        assertEquals(Str8ts.EMPTY_CELL, str8ts.getCell(0, 1));
+
+        assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(0, 1, 2));
+        assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(0, 2, 5)); // black cell is in no straight
+
+        assertTrue(str8ts.setColor(0, 2, Str8ts.Color.WHITE)); // compartment is the whole row again
+        assertTrue(str8ts.setColor(0, 3, Str8ts.Color.BLACK)); // 1, 2 and 5 are a compartment now
+        assertFalse(str8ts.setCell(0, 0, 1).isSuccess());
+    }
+
+    @Test
+    @DisplayName("should only be complete when all white cells are filled")
+    void shouldOnlyBeCompleteWhenAllWhiteCellsAreFilled() {
+        assertFalse(gentleStr8ts.isComplete());
+        assertTrue(gentleSolution.isComplete()); // black cells are not filled
+
+        final Str8ts str8ts = new Str8ts();
+        for (int row = 0; row < str8ts.getGridSize(); row++) {
+            for (int column = 0; column < str8ts.getGridSize(); column++) {
+                if (row == 8 || column >= 2) {
+                    assertTrue(str8ts.setColor(row, column, Str8ts.Color.BLACK));
+                }
+            }
+        }
+        assertFalse(str8ts.isComplete()); // 16 empty white cells are left
+        for (int row = 0; row < 8; row++) {
+            assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(row, 0, row + 1));
+            assertFalse(str8ts.isComplete());
+            assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(row, 1, row % 2 == 0 ? row + 2 : row));
+        }
+        assertTrue(str8ts.isComplete());
+    }
+
+    @Test
+    @DisplayName("should include colors in state hash")
+    void shouldIncludeColorsInStateHash() {
+        final Str8ts str8ts = new Str8ts();
+        str8ts.setCell(4, 4, 5); // empty cells can't be set to white if there are other empty cells in their line
+        final long stateHash = str8ts.getStateHash();
+
+        assertTrue(str8ts.setColor(4, 4, Str8ts.Color.BLACK));
+        assertNotEquals(stateHash, str8ts.getStateHash());
+        assertEquals(str8ts.getStateHash(), str8ts.getCopy().getStateHash());
+        assertTrue(str8ts.setColor(4, 4, Str8ts.Color.WHITE));
+        assertEquals(stateHash, str8ts.getStateHash());
+
+        assertEquals(gentleSolution.getStateHash(), new Str8ts(gentleSolutionGrid, gentleColors).getStateHash());
+    }
+
     @ParameterizedTest(name = "should set color of cell ({0},{1}) to Str8ts.Color.BLACK")
     @MethodSource("allCellRowsAndColumnsForGrid")
     @DisplayName("should set color of any cell to Str8ts.Color.BLACK")
@@ -278,6 +339,49 @@ class Str8tsTest {
         assertEquals(veryHardSolution, veryHardStr8ts);
     }
 
+    @ParameterizedTest(name = "should be solved with {0}")
+    @EnumSource(Str8ts.BranchingHeuristic.class)
+    @DisplayName("should be solved with any branching heuristic")
+    void shouldBeSolvedWithAnyBranchingHeuristic(final Str8ts.BranchingHeuristic branchingHeuristic) {
+        gentleStr8ts.setBranchingHeuristic(branchingHeuristic);
+        assertSame(Str8ts.SolveResult.ONE_SOLUTION, gentleStr8ts.solve());
+        assertEquals(gentleSolution, gentleStr8ts);
+
+        veryHardStr8ts.setBranchingHeuristic(branchingHeuristic);
+        assertSame(Str8ts.SolveResult.ONE_SOLUTION, veryHardStr8ts.solve());
+        assertEquals(veryHardSolution, veryHardStr8ts);
+    }
+
+    @Test
+    @DisplayName("should have exactly one solution")
+    void shouldHaveExactlyOneSolution() {
+        assertEquals(1, gentleStr8ts.countSolutions(2));
+        assertTrue(deepEquals(gentleGrid, gentleStr8ts.getGrid())); // state did not change
+
+        assertEquals(1, veryHardStr8ts.countSolutions(2));
+        assertTrue(deepEquals(veryHardGrid, veryHardStr8ts.getGrid())); // state did not change
+    }
+
+    @Test
+    @DisplayName("should only keep candidates that are part of a possible straight")
+    void shouldOnlyKeepCandidatesThatArePartOfAPossibleStraight() {
+        final Str8ts str8ts = new Str8ts();
+        assertTrue(str8ts.setColor(0, 3, Str8ts.Color.BLACK)); // (0, 0) to (0, 2) are a compartment now
+        assertTrue(str8ts.setColor(0, 6, Str8ts.Color.BLACK)); // leaves room for straights besides 4 and 5
+        assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(0, 3, 5));
+        assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(0, 0, 4));
+
+        str8ts.prepareForSolve();
+        // 3, 4, 5 and 4, 5, 6 would need the 5 of the black cell -> 2, 3, 4 is the only straight left
+        assertEquals(Str8ts.maskOf(2) | Str8ts.maskOf(3), str8ts.getCandidatesForSolve(0, 1));
+
+        // 5 to 9 is the only straight for the compartment (4, 0) to (8, 0) with 9 in it -> 5 and 6 are needed there
+        assertTrue(str8ts.setColor(3, 0, Str8ts.Color.BLACK));
+        assertSame(Str8ts.SetCellResult.SUCCESS, str8ts.setCell(8, 0, 9));
+        str8ts.prepareForSolve();
+        assertEquals(Str8ts.maskOf(2) | Str8ts.maskOf(3), str8ts.getCandidatesForSolve(1, 0));
+    }
+
     @ParameterizedTest(name = "cell ({0},{1}) should keep prefilled value after solve")
     @MethodSource("allCellRowsAndColumnsForGrid")
     @DisplayName("any cell should keep prefilled value after solve")
@@ -2,10 +2,21 @@ package model;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
@@ -31,4 +42,117 @@ class SudokuGeneratorTest {
         assertEquals(secondCopy, sudokuAndSolution.solution());
         assertEquals(thirdCopy, sudokuAndSolution.solution());
     }
+
+    @Test
+    @DisplayName("should generate a Sudoku which can't have any cells removed without losing its unique solution")
+    void shouldGenerateASudokuWhichCantHaveAnyCellsRemovedWithoutLosingItsUniqueSolution() {
+        final Sudoku sudoku = SudokuGenerator.generateSudokuAndSolution(3).sudoku();
+
+        assertEquals(1, sudoku.countSolutions(2));
+
+        for (int row = 0; row < sudoku.getGridSize(); row++) {
+            for (int column = 0; column < sudoku.getGridSize(); column++) {
+                final int cell = sudoku.getCell(row, column);
+                if (cell != Sudoku.EMPTY_CELL) {
+                    sudoku.resetCell(row, column);
+                    assertEquals(2, sudoku.countSolutions(2));
+                    sudoku.setCell(row, column, cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should generate the same Sudoku for the same seed")
+    void shouldGenerateTheSameSudokuForTheSameSeed() {
+        final SudokuGenerator.SudokuAndSolution sudokuAndSolution = SudokuGenerator.generateSudokuAndSolution(3, 42L);
+
+        assertEquals(sudokuAndSolution, SudokuGenerator.generateSudokuAndSolution(3, 42L));
+        assertNotEquals(sudokuAndSolution, SudokuGenerator.generateSudokuAndSolution(3, 43L));
+        assertEquals(1, sudokuAndSolution.sudoku().countSolutions(2));
+    }
+
+    @ParameterizedTest(name = "should generate a Sudoku with difficulty {0}")
+    @EnumSource(SudokuGrader.Difficulty.class)
+    @DisplayName("should generate a Sudoku with the requested difficulty")
+    void shouldGenerateASudokuWithTheRequestedDifficulty(final SudokuGrader.Difficulty difficulty) {
+        final SudokuGenerator.SudokuAndSolution sudokuAndSolution =
+                SudokuGenerator.generateSudokuAndSolution(3, 7L, difficulty);
+
+        assertSame(difficulty, SudokuGrader.grade(sudokuAndSolution.sudoku()).difficulty());
+        assertEquals(1, sudokuAndSolution.sudoku().countSolutions(2));
+        assertEquals(sudokuAndSolution, SudokuGenerator.generateSudokuAndSolution(3, 7L, difficulty));
+    }
+
+    @Test
+    @DisplayName("should not generate a Sudoku with a difficulty that is impossible for its size")
+    void shouldNotGenerateASudokuWithADifficultyThatIsImpossibleForItsSize() {
+        // 4x4 Sudokus with a unique solution can always be solved with singles
+        assertThrows(IllegalStateException.class,
+                () -> SudokuGenerator.generateSudokuAndSolution(2, 7L, SudokuGrader.Difficulty.MEDIUM));
+        assertThrows(NullPointerException.class, () -> SudokuGenerator.generateSudokuAndSolution(3, 7L, null));
+    }
+
+    @Test
+    @DisplayName("should generate the same Sudokus in parallel for the same seed")
+    void shouldGenerateTheSameSudokusInParallelForTheSameSeed() {
+        // 9x9 Sudokus are practically never equivalent, so none are dropped and the order is the only difference
+        final Map<SudokuGenerator.SudokuAndSolution, Long> sequential = countGenerated(20, 3, 1, 42L);
+        final Map<SudokuGenerator.SudokuAndSolution, Long> parallel = countGenerated(20, 3, 4, 42L);
+
+        assertEquals(20L, parallel.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(sequential, parallel);
+        assertNotEquals(sequential, countGenerated(20, 3, 4, 43L));
+
+        for (final SudokuGenerator.SudokuAndSolution sudokuAndSolution : parallel.keySet()) {
+            assertEquals(1, sudokuAndSolution.sudoku().countSolutions(2));
+            assertTrue(sudokuAndSolution.solution().isComplete());
+        }
+    }
+
+    private static Map<SudokuGenerator.SudokuAndSolution, Long> countGenerated(final int count, final int subGridSize,
+                                                                               final int parallelism, final long seed) {
+        return generateAll(count, subGridSize, parallelism, seed).stream().collect(groupingBy(identity(), counting()));
+    }
+
+    @Test
+    @DisplayName("should only generate the Sudokus that are taken from the stream")
+    void shouldOnlyGenerateTheSudokusThatAreTakenFromTheStream() {
+        // submitting all tasks up front would not even fit into memory
+        try (final Stream<SudokuGenerator.SudokuAndSolution> generated =
+                     SudokuGenerator.generate(Integer.MAX_VALUE, 3, 2, 42L)) {
+            assertEquals(3, generated.limit(3).collect(toList()).size());
+        }
+    }
+
+    @Test
+    @DisplayName("should generate no equivalent Sudokus")
+    void shouldGenerateNoEquivalentSudokus() {
+        // there are only a few dozen distinct 4x4 Sudokus, so there are many duplicates to drop
+        final Set<Long> fingerprints = generateAll(30, 2, 2, 42L).stream()
+                .map(sudokuAndSolution -> sudokuAndSolution.sudoku().getFingerprint())
+                .collect(toSet());
+        assertEquals(30, fingerprints.size());
+
+        // there is only one 1x1 Sudoku
+        assertEquals(1, generateAll(1, 1, 1, 42L).size());
+        assertThrows(IllegalStateException.class, () -> generateAll(2, 1, 1, 42L));
+    }
+
+    private static List<SudokuGenerator.SudokuAndSolution> generateAll(final int count, final int subGridSize,
+                                                                       final int parallelism, final long seed) {
+        try (final Stream<SudokuGenerator.SudokuAndSolution> generated =
+                     SudokuGenerator.generate(count, subGridSize, parallelism, seed)) {
+            return generated.collect(toList());
+        }
+    }
+
+    @Test
+    @DisplayName("should not generate with invalid arguments")
+    void shouldNotGenerateWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> SudokuGenerator.generate(-1, 3, 1, 0L));
+        assertThrows(IllegalArgumentException.class, () -> SudokuGenerator.generate(1, 3, 0, 0L));
+        assertThrows(IllegalArgumentException.class, () -> SudokuGenerator.generate(1, -1, 1, 0L));
+        assertEquals(0L, SudokuGenerator.generate(0, 3, 1, 0L).count());
+    }
 }
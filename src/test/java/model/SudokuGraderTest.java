@@ -0,0 +1,65 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Luca Kellermann
+ */
+@DisplayName("SudokuGrader")
+class SudokuGraderTest {
+
+    @ParameterizedTest(name = "should grade solved Sudoku with sub-grid size {0} as easy")
+    @ValueSource(ints = {0, 1, 2, 3, 4})
+    @DisplayName("should grade solved Sudoku as easy")
+    void shouldGradeSolvedSudokuAsEasy(final int subGridSize) {
+        final SudokuGrader.Grade grade = SudokuGrader.grade(new Sudoku(subGridSize, new Random(42L)));
+
+        assertEquals(new SudokuGrader.Grade(null, 0, true), grade);
+        assertSame(SudokuGrader.Difficulty.EASY, grade.difficulty());
+    }
+
+    @Test
+    @DisplayName("should need only a naked single for one empty cell")
+    void shouldNeedOnlyANakedSingleForOneEmptyCell() {
+        final Sudoku sudoku = new Sudoku(3, new Random(42L));
+        sudoku.resetCell(4, 4);
+        final Sudoku copy = sudoku.getCopy();
+
+        final SudokuGrader.Grade grade = SudokuGrader.grade(sudoku);
+        assertSame(SudokuGrader.Technique.NAKED_SINGLE, grade.hardestTechnique());
+        assertEquals(SudokuGrader.Technique.NAKED_SINGLE.getWeight(), grade.score());
+        assertTrue(grade.isSolved());
+        assertEquals(copy, sudoku); // not changed by grading
+    }
+
+    @Test
+    @DisplayName("should grade Sudokus without unique solution as expert")
+    void shouldGradeSudokusWithoutUniqueSolutionAsExpert() {
+        final SudokuGrader.Grade emptyGrade = SudokuGrader.grade(new Sudoku(3));
+        assertFalse(emptyGrade.isSolved());
+        assertSame(SudokuGrader.Difficulty.EXPERT, emptyGrade.difficulty());
+
+        final Sudoku unsolvable = new Sudoku(3);
+        for (int column = 0; column < 8; column++) {
+            unsolvable.setCell(0, column, column + 1);
+        }
+        unsolvable.setCell(1, 8, 9); // (0, 8) can only be 9
+        assertFalse(SudokuGrader.grade(unsolvable).isSolved());
+    }
+
+    @Test
+    @DisplayName("should grade harder techniques higher")
+    void shouldGradeHarderTechniquesHigher() {
+        final SudokuGrader.Technique[] techniques = SudokuGrader.Technique.values();
+        for (int index = 1; index < techniques.length; index++) {
+            assertTrue(techniques[index - 1].getWeight() < techniques[index].getWeight());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Luca Kellermann
+ */
+@DisplayName("SudokuPool")
+class SudokuPoolTest {
+
+    private static void awaitFullPool(final SudokuPool pool, final int subGridSize) {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (pool.size(subGridSize) < pool.getCapacityPerSize()) {
+                Thread.sleep(10);
+            }
+        });
+    }
+
+
+    @Test
+    @DisplayName("should refill in the background")
+    void shouldRefillInTheBackground() {
+        final SudokuPool pool = new SudokuPool(3);
+        assertEquals(0, pool.size(2));
+
+        pool.refill(2);
+        awaitFullPool(pool, 2);
+
+        final SudokuGenerator.SudokuAndSolution sudokuAndSolution = pool.take(2);
+        assertEquals(1, sudokuAndSolution.sudoku().countSolutions(2));
+        assertTrue(sudokuAndSolution.solution().isComplete());
+        awaitFullPool(pool, 2); // refilled after take()
+
+        assertThrows(IllegalArgumentException.class, () -> pool.refill(-1));
+    }
+
+    @Test
+    @DisplayName("should load saved Sudokus")
+    void shouldLoadSavedSudokus(@TempDir final Path directory) throws IOException {
+        final SudokuPool pool = new SudokuPool(2);
+        pool.refill(2);
+        awaitFullPool(pool, 2);
+
+        final Path file = directory.resolve("sudokus");
+        pool.save(file);
+        Files.write(file, List.of("2:1,2,3:1,2,3", "no sudoku"), APPEND);
+
+        final SudokuPool loadedPool = new SudokuPool(2);
+        assertEquals(2, loadedPool.load(file)); // invalid lines are ignored
+        assertEquals(2, loadedPool.size(2));
+
+        final SudokuGenerator.SudokuAndSolution sudokuAndSolution = loadedPool.take(2);
+        final Sudoku solvedSudoku = sudokuAndSolution.sudoku().getCopy();
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, solvedSudoku.solve());
+        assertEquals(sudokuAndSolution.solution(), solvedSudoku);
+    }
+}
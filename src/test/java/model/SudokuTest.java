@@ -5,12 +5,18 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
 import static java.util.Arrays.deepEquals;
+import static java.util.Collections.shuffle;
 import static model.Util.allCellRowsAndColumnsForGridWithSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
@@ -97,6 +103,115 @@ class SudokuTest {
         assertEquals(Sudoku.EMPTY_CELL, sudoku.getCell(0, 0));
     }
 
+    @Test
+    @DisplayName("should intern cells")
+    void shouldInternCells() {
+        assertSame(Sudoku.Cell.of(3, 7), Sudoku.Cell.of(3, 7));
+        assertEquals(new Sudoku.Cell(3, 7), Sudoku.Cell.of(3, 7));
+        assertEquals(new Sudoku.Cell(-1, 100), Sudoku.Cell.of(-1, 100)); // outside of any grid, but still a cell
+
+        final Sudoku.SetCellResult result = sudoku.setCell(0, 0, 2); // 2 is already in same row, see grid
+        assertTrue(result.conflictingCells().stream().anyMatch(cell -> cell == Sudoku.Cell.of(0, 2)));
+    }
+
+    @Test
+    @DisplayName("should only be complete when solved")
+    void shouldOnlyBeCompleteWhenSolved() {
+        assertFalse(sudoku.isComplete());
+        assertTrue(solution.isComplete());
+
+        final Sudoku copy = solution.getCopy();
+        copy.resetCell(4, 4);
+        assertFalse(copy.isComplete()); // one empty cell
+        assertFalse(copy.setCell(4, 4, 4).isSuccess()); // 4 is already in same row, see solutionGrid
+        assertFalse(copy.isComplete());
+        assertSame(Sudoku.SetCellResult.SUCCESS, copy.setCell(4, 4, 3));
+        assertTrue(copy.isComplete());
+
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solve());
+        assertTrue(sudoku.isComplete());
+    }
+
+    @Test
+    @DisplayName("should update state hash incrementally")
+    void shouldUpdateStateHashIncrementally() {
+        final long stateHash = sudoku.getStateHash();
+        assertEquals(stateHash, sudoku.getCopy().getStateHash());
+        assertNotEquals(stateHash, new Sudoku().getStateHash());
+
+        assertSame(Sudoku.SetCellResult.SUCCESS, sudoku.setCell(0, 0, 3));
+        assertNotEquals(stateHash, sudoku.getStateHash());
+        sudoku.resetCell(0, 0);
+        assertEquals(stateHash, sudoku.getStateHash());
+
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solve());
+        assertEquals(solution.getStateHash(), sudoku.getStateHash());
+        assertEquals(solution.hashCode(), sudoku.hashCode());
+    }
+
+    @ParameterizedTest(name = "should have same canonical form after random symmetry with seed {0}")
+    @ValueSource(longs = {1L, 2L, 3L, 4L, 5L})
+    @DisplayName("should have same canonical form after random symmetry")
+    void shouldHaveSameCanonicalFormAfterRandomSymmetry(final long seed) {
+        for (final int[][] g : List.of(grid, solutionGrid)) {
+            final Sudoku original = new Sudoku(g);
+            final Sudoku equivalent = new Sudoku(applyRandomSymmetry(g, 3, new Random(seed)));
+
+            final Sudoku canonicalForm = original.getCanonicalForm();
+            assertEquals(canonicalForm, equivalent.getCanonicalForm());
+            assertEquals(original.getFingerprint(), equivalent.getFingerprint());
+            assertEquals(canonicalForm, canonicalForm.getCanonicalForm());
+            assertEquals(1, canonicalForm.countSolutions(2));
+        }
+        assertNotEquals(sudoku.getFingerprint(), solution.getFingerprint());
+    }
+
+    private static int[][] applyRandomSymmetry(final int[][] g, final int subGridSize, final Random random) {
+        final int gridSize = subGridSize * subGridSize;
+        final int[] rows = randomLinePermutation(subGridSize, random);
+        final int[] columns = randomLinePermutation(subGridSize, random);
+        final int[] numbers = new int[gridSize + 1];
+        final List<Integer> shuffledNumbers = new ArrayList<>();
+        for (int number = 1; number <= gridSize; number++) {
+            shuffledNumbers.add(number);
+        }
+        shuffle(shuffledNumbers, random);
+        for (int number = 1; number <= gridSize; number++) {
+            numbers[number] = shuffledNumbers.get(number - 1);
+        }
+
+        final boolean transpose = random.nextBoolean();
+        final int[][] result = new int[gridSize][gridSize];
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                final int value = transpose ? g[columns[column]][rows[row]] : g[rows[row]][columns[column]];
+                result[row][column] = numbers[value];
+            }
+        }
+        return result;
+    }
+
+    // permutes the bands/stacks and the lines in each of them
+    private static int[] randomLinePermutation(final int subGridSize, final Random random) {
+        final List<Integer> blocks = new ArrayList<>();
+        for (int block = 0; block < subGridSize; block++) {
+            blocks.add(block);
+        }
+        shuffle(blocks, random);
+        final int[] lines = new int[subGridSize * subGridSize];
+        for (int blockIndex = 0; blockIndex < subGridSize; blockIndex++) {
+            final List<Integer> linesInBlock = new ArrayList<>();
+            for (int line = 0; line < subGridSize; line++) {
+                linesInBlock.add(blocks.get(blockIndex) * subGridSize + line);
+            }
+            shuffle(linesInBlock, random);
+            for (int line = 0; line < subGridSize; line++) {
+                lines[blockIndex * subGridSize + line] = linesInBlock.get(line);
+            }
+        }
+        return lines;
+    }
+
     @Test
     @DisplayName("should set cell with valid number")
     void shouldSetCellWithValidNumber() {
@@ -136,6 +251,167 @@ class SudokuTest {
         assertEquals(solution, sudoku);
     }
 
+    @Test
+    @DisplayName("should find up to two solutions")
+    void shouldFindUpToTwoSolutions() {
+        final int[][] solutions = sudoku.findUpToTwoSolutions();
+        assertEquals(1, solutions.length);
+        final Sudoku foundSolution = new Sudoku();
+        foundSolution.applySolution(solutions[0]);
+        assertEquals(solution, foundSolution);
+        assertEquals(new Sudoku(grid), sudoku);
+
+        final int[][] solutionsOfEmptySudoku = new Sudoku().findUpToTwoSolutions();
+        assertEquals(2, solutionsOfEmptySudoku.length);
+        assertFalse(Arrays.equals(solutionsOfEmptySudoku[0], solutionsOfEmptySudoku[1]));
+        for (final int[] solutionOfEmptySudoku : solutionsOfEmptySudoku) {
+            final Sudoku foundSolutionOfEmptySudoku = new Sudoku();
+            foundSolutionOfEmptySudoku.applySolution(solutionOfEmptySudoku);
+            assertTrue(foundSolutionOfEmptySudoku.isComplete());
+        }
+    }
+
+    @ParameterizedTest(name = "should be solved with {0}")
+    @EnumSource(Sudoku.BranchingHeuristic.class)
+    @DisplayName("should be solved with any branching heuristic")
+    void shouldBeSolvedWithAnyBranchingHeuristic(final Sudoku.BranchingHeuristic branchingHeuristic) {
+        sudoku.setBranchingHeuristic(branchingHeuristic);
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solve());
+        assertEquals(solution, sudoku);
+    }
+
+    @ParameterizedTest(name = "should be solved with {0}")
+    @EnumSource(Sudoku.SolveAlgorithm.class)
+    @DisplayName("should be solved with any solve algorithm")
+    void shouldBeSolvedWithAnySolveAlgorithm(final Sudoku.SolveAlgorithm algorithm) {
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solve(algorithm));
+        assertEquals(solution, sudoku);
+    }
+
+    @ParameterizedTest(name = "should find multiple solutions for empty Sudoku with {0}")
+    @EnumSource(Sudoku.SolveAlgorithm.class)
+    @DisplayName("should find multiple solutions for empty Sudoku with any solve algorithm")
+    void shouldFindMultipleSolutionsForEmptySudokuWithAnySolveAlgorithm(final Sudoku.SolveAlgorithm algorithm) {
+        final Sudoku emptySudoku = new Sudoku();
+        assertSame(Sudoku.SolveResult.MULTIPLE_SOLUTIONS, emptySudoku.solve(algorithm));
+        assertDoesNotThrow(() -> new Sudoku(emptySudoku.getGrid())); // solved state is valid
+        for (final int[] row : emptySudoku.getGrid()) {
+            for (final int cell : row) {
+                assertNotEquals(Sudoku.EMPTY_CELL, cell); // solved state is completely filled
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "should not solve unsolvable Sudoku with {0}")
+    @EnumSource(Sudoku.SolveAlgorithm.class)
+    @DisplayName("should not solve unsolvable Sudoku with any solve algorithm")
+    void shouldNotSolveUnsolvableSudokuWithAnySolveAlgorithm(final Sudoku.SolveAlgorithm algorithm) {
+        final int[][] unsolvableGrid = new int[Sudoku.DEFAULT_GRID_SIZE][Sudoku.DEFAULT_GRID_SIZE];
+        for (int column = 1; column < Sudoku.DEFAULT_GRID_SIZE; column++) {
+            unsolvableGrid[0][column] = column; // cell (0,0) can only be 9
+        }
+        unsolvableGrid[1][0] = 9; // but 9 is already in column 0
+        final Sudoku unsolvableSudoku = new Sudoku(unsolvableGrid);
+
+        assertSame(Sudoku.SolveResult.NO_SOLUTION, unsolvableSudoku.solve(algorithm));
+        assertTrue(deepEquals(unsolvableGrid, unsolvableSudoku.getGrid()));
+    }
+
+    @ParameterizedTest(name = "should count solutions with {0}")
+    @EnumSource(Sudoku.SolveAlgorithm.class)
+    @DisplayName("should count solutions with any solve algorithm")
+    void shouldCountSolutionsWithAnySolveAlgorithm(final Sudoku.SolveAlgorithm algorithm) {
+        assertEquals(1, sudoku.countSolutions(2, algorithm));
+        assertEquals(0, sudoku.countSolutions(0, algorithm));
+        assertTrue(deepEquals(grid, sudoku.getGrid())); // state did not change
+
+        final Sudoku emptySudoku = new Sudoku();
+        assertEquals(5, emptySudoku.countSolutions(5, algorithm)); // stops at limit
+        assertEquals(new Sudoku(), emptySudoku); // state did not change
+    }
+
+    @ParameterizedTest(name = "should be solved in parallel with parallelism {0}")
+    @ValueSource(ints = {1, 2, 8})
+    @DisplayName("should be solved in parallel")
+    void shouldBeSolvedInParallel(final int parallelism) {
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solveInParallel(parallelism));
+        assertEquals(solution, sudoku);
+
+        final Sudoku emptySudoku = new Sudoku(4);
+        assertSame(Sudoku.SolveResult.MULTIPLE_SOLUTIONS, emptySudoku.solveInParallel(parallelism));
+        assertDoesNotThrow(() -> new Sudoku(emptySudoku.getGrid())); // solved state is valid
+    }
+
+    @Test
+    @DisplayName("should not be solved in parallel with parallelism 0")
+    void shouldNotBeSolvedInParallelWithParallelism0() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> sudoku.solveInParallel(0)
+        );
+    }
+
+    @ParameterizedTest(name = "should time out with {0}")
+    @EnumSource(Sudoku.SolveAlgorithm.class)
+    @DisplayName("should time out with any solve algorithm")
+    void shouldTimeOutWithAnySolveAlgorithm(final Sudoku.SolveAlgorithm algorithm) {
+        assertSame(Sudoku.SolveResult.TIMED_OUT, sudoku.solve(algorithm, Duration.ZERO));
+        assertTrue(deepEquals(grid, sudoku.getGrid())); // state did not change
+
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solve(algorithm, Duration.ofMinutes(1)));
+        assertEquals(solution, sudoku);
+    }
+
+    @ParameterizedTest(name = "should be cancelled by interrupt with {0}")
+    @EnumSource(Sudoku.SolveAlgorithm.class)
+    @DisplayName("should be cancelled by interrupt with any solve algorithm")
+    void shouldBeCancelledByInterruptWithAnySolveAlgorithm(final Sudoku.SolveAlgorithm algorithm) {
+        Thread.currentThread().interrupt();
+        try {
+            assertSame(Sudoku.SolveResult.CANCELLED, sudoku.solve(algorithm, Duration.ofMinutes(1)));
+            assertTrue(Thread.currentThread().isInterrupted()); // interrupt status was not cleared
+            assertTrue(deepEquals(grid, sudoku.getGrid())); // state did not change
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    @DisplayName("should roll back moves to mark")
+    void shouldRollBackMovesToMark() {
+        final int mark = sudoku.mark();
+        sudoku.applyMove(0, 0, Sudoku.EMPTY_CELL);
+        final int secondMark = sudoku.mark();
+        sudoku.applyMove(0, 0, 1);
+        sudoku.applyMove(0, 1, 1); // moves are not checked for conflicts
+
+        sudoku.rollbackTo(secondMark);
+        assertEquals(Sudoku.EMPTY_CELL, sudoku.getCell(0, 0));
+        assertEquals(grid[0][1], sudoku.getCell(0, 1));
+
+        sudoku.rollbackTo(mark);
+        assertTrue(deepEquals(grid, sudoku.getGrid()));
+        assertThrows(IllegalArgumentException.class, () -> sudoku.rollbackTo(secondMark)); // already rolled back
+    }
+
+    @Test
+    @DisplayName("should be solved by propagation without guessing")
+    void shouldBeSolvedByPropagationWithoutGuessing() {
+        assertNull(sudoku.getLastSolveStatistics());
+        assertSame(Sudoku.SolveResult.ONE_SOLUTION, sudoku.solve());
+        // all 56 empty cells of this newspaper Sudoku only need naked and hidden singles
+        assertEquals(new Sudoku.SolveStatistics(56, 0), sudoku.getLastSolveStatistics());
+    }
+
+    @Test
+    @DisplayName("should not count solutions with negative limit")
+    void shouldNotCountSolutionsWithNegativeLimit() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> sudoku.countSolutions(-1)
+        );
+    }
+
     @ParameterizedTest(name = "cell ({0},{1}) should keep prefilled value after solve")
     @MethodSource("allCellRowsAndColumnsForGrid")
     @DisplayName("any cell should keep prefilled value after solve")